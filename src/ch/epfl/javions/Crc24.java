@@ -1,5 +1,10 @@
 package ch.epfl.javions;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
 /**
  * Public and Final: Represents a CRC of 24 bits calculator
  *
@@ -11,8 +16,17 @@ public final class Crc24 {
      * of which the MSB is equal to 1
      */
     public static final int GENERATOR = 0xFFF409;
+    /** Number of bytes of a raw message in its high part, the low part holding the 8 others*/
+    public static final int HIGH_BYTES = 6;
     private static final int GENERATOR_TABLE_SIZE= 1 << 8 , CRC_SIZE = 24;
+    private static final int CRC_MASK = (1 << CRC_SIZE) - 1, BYTE_MASK = 0xFF;
+    private static final VarHandle LONG_BIG_ENDIAN =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT_BIG_ENDIAN =
+            MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
     private final int[] table;
+    /** Tables giving the CRC24 of a byte followed by 0 to 7 null bytes, one after the other*/
+    private final int[] sliceTables;
 
     /**
      * Default Crc24 constructor.
@@ -22,6 +36,7 @@ public final class Crc24 {
      */
     public Crc24(int generator) {
         this.table = buildTable(generator);
+        this.sliceTables = buildSliceTables(table);
     }
 
     /**
@@ -46,6 +61,128 @@ public final class Crc24 {
         return Bits.extractUInt(crc, 0, CRC_SIZE);
     }
 
+    /**
+     * Returns the CRC24 of the given range of the byte array.
+     * The bytes are processed eight at a time as a long word, then four at a time as an int
+     * word, and the remaining ones one at a time
+     *
+     * @param bytes  (byte[]): Byte array from which the CRC24 has to be returned
+     * @param offset (int): Index of the first byte of the range
+     * @param length (int): Number of bytes of the range
+     * @return (int): CRC24 of the given range
+     * @throws IndexOutOfBoundsException If the range is not completely inside the array
+     */
+    public int crc(byte[] bytes, int offset, int length) {
+        int end = Objects.checkFromIndexSize(offset, length, bytes.length) + length;
+        int crc = 0;
+        int i = offset;
+
+        for (; i + Long.BYTES <= end; i += Long.BYTES)
+            crc = crcWord(crc, (long) LONG_BIG_ENDIAN.get(bytes, i));
+
+        for (; i + Integer.BYTES <= end; i += Integer.BYTES)
+            crc = crcWord(crc, (int) INT_BIG_ENDIAN.get(bytes, i));
+
+        for (; i < end; i++)
+            crc = ((crc << Byte.SIZE) & CRC_MASK)
+                    ^ table[((crc >>> (CRC_SIZE - Byte.SIZE)) ^ bytes[i]) & BYTE_MASK];
+
+        return crc;
+    }
+
+    /**
+     * Updates the given CRC24 with the given byte, so that the CRC24 of a message can be
+     * computed while its bytes are produced. Starting from 0, the result is the same as the
+     * one of crc(byte[], int, int) on the bytes given so far
+     *
+     * @param crc (int): CRC24 of the previous bytes
+     * @param b   (byte): Next byte
+     * @return (int): CRC24 including the byte
+     */
+    public int update(int crc, byte b) {
+        return ((crc << Byte.SIZE) & CRC_MASK) ^ table[((crc >>> (CRC_SIZE - Byte.SIZE)) ^ b) & BYTE_MASK];
+    }
+
+    /**
+     * Returns the CRC24 of a raw message of 14 bytes, given as two long words
+     *
+     * @param high (long): First 6 bytes of the message, in the 48 LSBs
+     * @param low  (long): Last 8 bytes of the message
+     * @return (int): CRC24 of the message
+     */
+    public int crc(long high, long low) {
+        int crc = 0;
+        for (int i = 0; i < HIGH_BYTES; i++) {
+            int b = (int) (high >>> ((HIGH_BYTES - 1 - i) * Byte.SIZE)) & BYTE_MASK;
+            crc ^= sliceTables[(HIGH_BYTES - 1 - i) << Byte.SIZE | b];
+        }
+        return crcWord(crc, low);
+    }
+
+    /**
+     * Packs the first 6 bytes of the given raw message into the high part given to crc(long, long)
+     *
+     * @param bytes (byte[]): Bytes of the raw message
+     * @return (long): Bytes 0 to 5 of the message, in the 48 least significant bits
+     * @throws IndexOutOfBoundsException If there are fewer than 6 bytes
+     */
+    public static long packHigh(byte[] bytes) {
+        long high = 0;
+        for (int i = 0; i < HIGH_BYTES; i++) high = high << Byte.SIZE | Byte.toUnsignedLong(bytes[i]);
+        return high;
+    }
+
+    /**
+     * Packs the 8 bytes following the first 6 ones of the given raw message into the low part
+     * given to crc(long, long)
+     *
+     * @param bytes (byte[]): Bytes of the raw message
+     * @return (long): Bytes 6 to 13 of the message
+     * @throws IndexOutOfBoundsException If there are fewer than 14 bytes
+     */
+    public static long packLow(byte[] bytes) {
+        long low = 0;
+        for (int i = HIGH_BYTES; i < HIGH_BYTES + Long.BYTES; i++)
+            low = low << Byte.SIZE | Byte.toUnsignedLong(bytes[i]);
+        return low;
+    }
+
+    /**
+     * Updates the given CRC24 with the four bytes of the given word, using one table per byte
+     *
+     * @param crc  (int): CRC24 of the previous bytes
+     * @param word (int): Next four bytes, the first one being the most significant
+     * @return (int): CRC24 including the four bytes
+     */
+    private int crcWord(int crc, int word) {
+        int w = word ^ (crc << (Integer.SIZE - CRC_SIZE));
+        int result = 0;
+
+        for (int i = 0; i < Integer.BYTES; i++) {
+            int b = (w >>> ((Integer.BYTES - 1 - i) * Byte.SIZE)) & BYTE_MASK;
+            result ^= sliceTables[(Integer.BYTES - 1 - i) << Byte.SIZE | b];
+        }
+        return result;
+    }
+
+    /**
+     * Updates the given CRC24 with the eight bytes of the given word, using one table per byte
+     *
+     * @param crc  (int): CRC24 of the previous bytes
+     * @param word (long): Next eight bytes, the first one being the most significant
+     * @return (int): CRC24 including the eight bytes
+     */
+    private int crcWord(int crc, long word) {
+        long w = word ^ ((long) crc << (Long.SIZE - CRC_SIZE));
+        int result = 0;
+
+        for (int i = 0; i < Long.BYTES; i++) {
+            int b = (int) (w >>> ((Long.BYTES - 1 - i) * Byte.SIZE)) & BYTE_MASK;
+            result ^= sliceTables[(Long.BYTES - 1 - i) << Byte.SIZE | b];
+        }
+        return result;
+    }
+
     /**
      * Calculates the crc bit by bit
      *
@@ -84,4 +221,23 @@ public final class Crc24 {
 
         return table;
     }
+
+    /**
+     * Builds the tables giving the CRC24 of each byte followed by 0 to 7 null bytes,
+     * each one being deduced from the previous one by appending a null byte
+     *
+     * @param table (int[]): Table of the generator
+     * @return (int[]): Eight tables, one after the other
+     */
+    private static int[] buildSliceTables(int[] table) {
+        int[] sliceTables = new int[Long.BYTES * GENERATOR_TABLE_SIZE];
+        System.arraycopy(table, 0, sliceTables, 0, GENERATOR_TABLE_SIZE);
+
+        for (int i = GENERATOR_TABLE_SIZE; i < sliceTables.length; i++) {
+            int previous = sliceTables[i - GENERATOR_TABLE_SIZE];
+            sliceTables[i] = ((previous << Byte.SIZE) & CRC_MASK)
+                    ^ table[previous >>> (CRC_SIZE - Byte.SIZE)];
+        }
+        return sliceTables;
+    }
 }
@@ -0,0 +1,155 @@
+package ch.epfl.javions;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import static ch.epfl.javions.Preconditions.checkArgument;
+
+/**
+ * Public and Final: Represents a bounded ring buffer passing elements from a single producer
+ * thread to a single consumer thread without locks nor allocations. The sequences of the
+ * producer and of the consumer are kept on distinct cache lines, so that the two threads
+ * do not invalidate each other's line on every element
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+public final class RingBuffer<E> {
+    /** Number of longs between two sequences, so that each one has its own cache line*/
+    private static final int PADDING = 16;
+    private static final int HEAD = PADDING, TAIL = 2 * PADDING;
+    private static final long BLOCK_PARK_NS = 50_000;
+
+    /**
+     * Public: Enumeration of the behaviours of a full ring buffer when an element is offered
+     */
+    public enum OverflowPolicy {
+        /** The producer waits until the consumer takes an element*/
+        BLOCK,
+        /** The oldest element is dropped to make room for the new one*/
+        DROP_OLDEST,
+        /** The new element is dropped*/
+        DROP_NEWEST
+    }
+
+    private final AtomicReferenceArray<E> elements;
+    private final int mask;
+    private final OverflowPolicy policy;
+    /** Sequences of the next element to take (head) and of the next element to put (tail)*/
+    private final AtomicLongArray sequences = new AtomicLongArray(3 * PADDING);
+    /**
+     * Number of dropped elements, only written by the producer, so that its increments do not
+     * need to be atomic. The consumer only reads it
+     */
+    private volatile long dropped = 0;
+
+    /**
+     * Default RingBuffer constructor.
+     * Defines an empty ring buffer of the given capacity
+     *
+     * @param capacity (int): Maximum number of elements, a power of two
+     * @param policy   (OverflowPolicy): Behaviour when an element is offered while it is full
+     * @throws IllegalArgumentException If the capacity is not a strictly positive power of two
+     */
+    public RingBuffer(int capacity, OverflowPolicy policy) {
+        checkArgument(0 < capacity && Integer.bitCount(capacity) == 1);
+
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.policy = policy;
+    }
+
+    /**
+     * Offers the given element, which is dropped or makes the oldest one be dropped if the
+     * ring buffer is full, depending on its policy. Must only be called by the producer
+     *
+     * @param element (E): Given element
+     * @return (boolean): True if the element has been added, false if it has been dropped,
+     * which the blocking policy only does if the producer is interrupted while waiting
+     * @throws NullPointerException If the element is null, null meaning that the ring buffer is empty
+     */
+    public boolean offer(E element) {
+        Objects.requireNonNull(element);
+
+        long tail = sequences.getPlain(TAIL);
+
+        while (true) {
+            long head = sequences.getAcquire(HEAD);
+            if (tail - head < elements.length()) break;
+
+            switch (policy) {
+                case BLOCK -> {
+                    if (Thread.currentThread().isInterrupted()) {
+                        dropped = dropped + 1;
+                        return false;
+                    }
+                    LockSupport.parkNanos(BLOCK_PARK_NS);
+                }
+                case DROP_OLDEST -> {
+                    // The consumer may take the oldest element at the same time
+                    if (sequences.compareAndSet(HEAD, head, head + 1)) dropped = dropped + 1;
+                }
+                case DROP_NEWEST -> {
+                    dropped = dropped + 1;
+                    return false;
+                }
+            }
+        }
+
+        elements.setPlain((int) tail & mask, element);
+        sequences.setRelease(TAIL, tail + 1);
+        return true;
+    }
+
+    /**
+     * Takes the oldest element of the ring buffer. Must only be called by the consumer
+     *
+     * @return (E): Oldest element, or null if the ring buffer is empty
+     */
+    public E poll() {
+        while (true) {
+            long head = sequences.getAcquire(HEAD);
+            if (head == sequences.getAcquire(TAIL)) return null;
+
+            int slot = (int) head & mask;
+            E element = elements.getPlain(slot);
+            // The slot is cleared before the head moves past it, so that the ring buffer does not
+            // keep the taken element alive, the producer only reusing the slot after that
+            if (!elements.compareAndSet(slot, element, null)) continue;
+
+            // The element is only valid if the producer did not drop it in the meantime. The
+            // slot may then already hold a new element identical to it, which is put back
+            if (sequences.compareAndSet(HEAD, head, head + 1)) return element;
+            elements.compareAndSet(slot, null, element);
+        }
+    }
+
+    /**
+     * Determines the number of elements currently in the ring buffer
+     *
+     * @return (int): Occupancy of the ring buffer
+     */
+    public int size() {
+        long head = sequences.getAcquire(HEAD);
+        return (int) Math.min(elements.length(), Math.max(0, sequences.getAcquire(TAIL) - head));
+    }
+
+    /**
+     * Determines the maximum number of elements of the ring buffer
+     *
+     * @return (int): Capacity of the ring buffer
+     */
+    public int capacity() {
+        return elements.length();
+    }
+
+    /**
+     * Determines the number of elements dropped so far because the ring buffer was full
+     *
+     * @return (long): Number of dropped elements
+     */
+    public long dropped() {
+        return dropped;
+    }
+}
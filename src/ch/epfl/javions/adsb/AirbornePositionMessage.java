@@ -30,6 +30,8 @@ public record AirbornePositionMessage(long timeStampNs, IcaoAddress icaoAddress,
     private static final int ALT_COEFF_ONE = 25;
     private static final int NUMBER_GRAY_GROUP = 4, GRAY_GROUP_SIZE = 3;
     private static final int[] INDEX_TABLE = {0, 6, 1, 7};
+    /** Altitude of each of the 4096 values of the altitude field, NaN if it is invalid*/
+    private static final double[] ALTITUDES = altitudes();
 
     /**
      * Compact AirbornePositionMessage constructor
@@ -59,33 +61,81 @@ public record AirbornePositionMessage(long timeStampNs, IcaoAddress icaoAddress,
      * @return (AircraftPositionMessage): Corresponding position message
      */
     public static AirbornePositionMessage of(RawMessage rawMessage) {
-        double altitude = altitude(rawMessage);
         long payload = rawMessage.payload();
+        double altitude = altitude(payload);
 
         return Double.isNaN(altitude) ? null : new AirbornePositionMessage(
                 rawMessage.timeStampNs(),
                 rawMessage.icaoAddress(),
                 altitude,
-                Bits.extractUInt(payload, FORMAT_START_INDEX, PARITY_SIZE),
-                Math.scalb((double) Bits.extractUInt(
-                                payload,
-                                LON_CPR_INDEX, LON_LAT_CPR_SIZE),
-                        POSITION_NORMALISATION_VALUE),
-                Math.scalb((double) Bits.extractUInt(
-                                payload,
-                                LAT_CPR_INDEX, LON_LAT_CPR_SIZE),
-                        POSITION_NORMALISATION_VALUE));
+                parity(payload),
+                x(payload),
+                y(payload));
     }
 
     /**
-     * Calculates the altitude of the aircraft
+     * Determines the parity of the position encoded in the given payload
      *
-     * @param rawMessage (RawMessage): Given raw message
-     * @return (double): Corresponding altitude
+     * @param payload (long): Given ME attribute
+     * @return (int): Parity of the message
      */
-    private static double altitude(RawMessage rawMessage) {
-        long altitudeContent = Bits.extractUInt(rawMessage.payload(), ALT_START_INDEX, ALT_SIZE);
+    static int parity(long payload) {
+        return Bits.extractUInt(payload, FORMAT_START_INDEX, PARITY_SIZE);
+    }
+
+    /**
+     * Determines the local normalized longitude encoded in the given payload
+     *
+     * @param payload (long): Given ME attribute
+     * @return (double): Local normalized longitude
+     */
+    static double x(long payload) {
+        return Math.scalb((double) Bits.extractUInt(payload, LON_CPR_INDEX, LON_LAT_CPR_SIZE),
+                POSITION_NORMALISATION_VALUE);
+    }
 
+    /**
+     * Determines the local normalized latitude encoded in the given payload
+     *
+     * @param payload (long): Given ME attribute
+     * @return (double): Local normalized latitude
+     */
+    static double y(long payload) {
+        return Math.scalb((double) Bits.extractUInt(payload, LAT_CPR_INDEX, LON_LAT_CPR_SIZE),
+                POSITION_NORMALISATION_VALUE);
+    }
+
+    /**
+     * Determines the altitude of the aircraft, looked up in the table of all the values of
+     * the altitude field
+     *
+     * @param payload (long): Given ME attribute
+     * @return (double): Corresponding altitude, or NaN if it is invalid
+     */
+    static double altitude(long payload) {
+        return ALTITUDES[Bits.extractUInt(payload, ALT_START_INDEX, ALT_SIZE)];
+    }
+
+    /**
+     * Calculates the altitude corresponding to each value of the altitude field
+     *
+     * @return (double[]): Altitudes, indexed by the value of the field
+     */
+    private static double[] altitudes() {
+        double[] altitudes = new double[1 << ALT_SIZE];
+        for (int altitudeContent = 0; altitudeContent < altitudes.length; altitudeContent++)
+            altitudes[altitudeContent] = decodeAltitude(altitudeContent);
+        return altitudes;
+    }
+
+    /**
+     * Calculates the altitude encoded in the given value of the altitude field, with
+     * Q=1 (25 ft steps) or Q=0 (100 ft Gray code)
+     *
+     * @param altitudeContent (int): Value of the altitude field
+     * @return (double): Corresponding altitude, or NaN if it is invalid
+     */
+    private static double decodeAltitude(int altitudeContent) {
         if (Bits.testBit(altitudeContent, Q_INDEX)) {
             int codedAltitude =
                     (int) (((altitudeContent >>> Q_INDEX + 1) << Q_INDEX) | (MASK & altitudeContent));
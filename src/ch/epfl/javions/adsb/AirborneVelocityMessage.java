@@ -57,8 +57,9 @@ public record AirborneVelocityMessage(
      * @return (AircraftPositionMessage): Corresponding velocity message
      */
     public static AirborneVelocityMessage of(RawMessage rawMessage) {
-        double speed = speed(rawMessage);
-        double trackOrHeading = trackOrHeading(rawMessage);
+        long payload = rawMessage.payload();
+        double speed = speed(payload);
+        double trackOrHeading = trackOrHeading(payload);
 
         return Double.isNaN(speed) || Double.isNaN(trackOrHeading) ? null :
                 new AirborneVelocityMessage(
@@ -71,13 +72,13 @@ public record AirborneVelocityMessage(
     /**
      * Calculates the speed of the aircraft
      *
-     * @param rawMessage (RawMessage): Given raw message
-     * @return (double): Corresponding speed
+     * @param payload (long): Given ME attribute
+     * @return (double): Corresponding speed, or NaN if it is invalid
      */
-    private static double speed(RawMessage rawMessage) {
-        int st = Bits.extractUInt(rawMessage.payload(), ST_START_INDEX , ST_SIZE);
+    static double speed(long payload) {
+        int st = Bits.extractUInt(payload, ST_START_INDEX , ST_SIZE);
         long speedContent = Bits.extractUInt(
-                rawMessage.payload(),
+                payload,
                 SPEEDCONTENT_START_INDEX,
                 SPEED_TOR_CONTENT_SIZE);
 
@@ -99,7 +100,7 @@ public record AirborneVelocityMessage(
 
                 return speedValue(as, st);
             }
-            case default -> {
+            default -> {
                 return INVALID_SPEED;
             }
         }
@@ -121,14 +122,14 @@ public record AirborneVelocityMessage(
     /**
      * Calculates the direction of the aircraft
      *
-     * @param rawMessage (RawMessage): Given raw message
-     * @return (double): Corresponding direction
+     * @param payload (long): Given ME attribute
+     * @return (double): Corresponding direction, or NaN if it is invalid
      */
 
-    private static double trackOrHeading(RawMessage rawMessage) {
-        int st = Bits.extractUInt(rawMessage.payload(), ST_START_INDEX , ST_SIZE);
+    static double trackOrHeading(long payload) {
+        int st = Bits.extractUInt(payload, ST_START_INDEX , ST_SIZE);
         long torContent = Bits.extractUInt(
-                rawMessage.payload(),
+                payload,
                 TORCONTENT_START_INDEX,
                 SPEED_TOR_CONTENT_SIZE);
 
@@ -154,7 +155,7 @@ public record AirborneVelocityMessage(
                         : INVALID_TOR;
             }
 
-            case default -> {
+            default -> {
                 return INVALID_TOR;
             }
         }
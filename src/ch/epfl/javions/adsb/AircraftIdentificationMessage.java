@@ -14,6 +14,7 @@ import static ch.epfl.javions.Preconditions.checkArgument;
  */
 public record AircraftIdentificationMessage(long timeStampNs, IcaoAddress icaoAddress,
                                             int category, CallSign callSign) implements Message {
+    /** Number of bits of a character of the call sign and number of its characters*/
     private static final int CALL_SIGN_CHARACTER_SIZE = 6, CALL_SIGN_SIZE = 8;
     private static final int CA_START_INDEX = 48, CA_SIZE = 3;
     private static final int CATEGORY_MSB_COEFF = 14;
@@ -45,14 +46,44 @@ public record AircraftIdentificationMessage(long timeStampNs, IcaoAddress icaoAd
     public static AircraftIdentificationMessage of(RawMessage rawMessage) {
         long payload = rawMessage.payload();
 
-        String callSign = callSignB(payload);
+        CallSign callSign = callSign(payload);
 
-        return callSign.contains("?") ? null :
+        return callSign == null ? null :
                 new AircraftIdentificationMessage(
                         rawMessage.timeStampNs(),
                         rawMessage.icaoAddress(),
-                        categoryCalculator(payload, rawMessage),
-                        new CallSign(callSign));
+                        categoryCalculator(payload, rawMessage.typeCode()),
+                        callSign);
+    }
+
+    /**
+     * Determines the call sign encoded in the given payload
+     *
+     * @param payload (long): Given payload
+     * @return (CallSign): Corresponding call sign, or null if it contains an invalid character
+     */
+    static CallSign callSign(long payload) {
+        String callSign = callSignB(payload);
+
+        return callSign.contains("?") ? null : new CallSign(callSign);
+    }
+
+    /**
+     * Determines whether the call sign encoded in the given payload is valid, without creating it
+     *
+     * @param payload (long): Given payload
+     * @return (boolean): True if none of its characters is invalid
+     */
+    static boolean hasValidCallSign(long payload) {
+        for (int i = 0; i < CALL_SIGN_SIZE; i++) {
+            int character = Bits.extractUInt(
+                    payload,
+                    CALL_SIGN_CHARACTER_SIZE * i,
+                    CALL_SIGN_CHARACTER_SIZE);
+
+            if ('?' == ALPHABET.charAt(character)) return false;
+        }
+        return true;
     }
 
     /**
@@ -64,7 +95,7 @@ public record AircraftIdentificationMessage(long timeStampNs, IcaoAddress icaoAd
     private static String callSignB(long payload) {
         StringBuilder callSignB = new StringBuilder(CALL_SIGN_SIZE);
 
-        for (int i = 0; i < Byte.SIZE; i++) {
+        for (int i = 0; i < CALL_SIGN_SIZE; i++) {
             int character = Bits.extractUInt(
                     payload,
                     CALL_SIGN_CHARACTER_SIZE * i,
@@ -80,13 +111,12 @@ public record AircraftIdentificationMessage(long timeStampNs, IcaoAddress icaoAd
     /**
      * Calculates the category of the aircraft
      *
-     * @param payload    (long): Given payload
-     * @param rawMessage (RawMessage): Raw message sent by the aircraft
+     * @param payload  (long): Given payload
+     * @param typeCode (int): Type code of the message
      * @return (int): Corresponding category
      */
-    private static int categoryCalculator(long payload , RawMessage rawMessage) {
+    static int categoryCalculator(long payload, int typeCode) {
         int ca = Bits.extractUInt(payload, CA_START_INDEX, CA_SIZE);
-        int typeCode = rawMessage.typeCode();
 
         return ((CATEGORY_MSB_COEFF - typeCode) << CA_SIZE + 1) |  ca;
     }
@@ -9,15 +9,19 @@ import static java.util.Objects.requireNonNull;
 
 /**
  * Public: Represents an aircraft state accumulator, i.e. an object accumulating ADS-B
- * messages coming from a single aircraft to determine its state over time
+ * messages coming from a single aircraft to determine its state over time. As a visitor,
+ * it can also be given the content of the frames directly, without any message being created
  *
  * @author Pablo Robin Guerrero (356671)
  */
-public final class AircraftStateAccumulator <T extends AircraftStateSetter> {
+public final class AircraftStateAccumulator <T extends AircraftStateSetter> implements MessageVisitor {
     private static final long MAX_TIME = Duration.ofSeconds(10).toNanos();
     private static final int ODD_PARITY = 0, EVEN_PARITY = 1;
     private static final int[] PARITY_TABLE = new int[] {1, 0};
-    private final AirbornePositionMessage[] messages = new AirbornePositionMessage[2];
+    /** Last position received of each parity, kept as primitive values*/
+    private final boolean[] positionReceived = new boolean[2];
+    private final long[] positionTimeStampsNs = new long[2];
+    private final double[] positionXs = new double[2], positionYs = new double[2];
     private final T state;
 
     /**
@@ -47,42 +51,63 @@ public final class AircraftStateAccumulator <T extends AircraftStateSetter> {
      * @param message (Message): given message
      */
     public void update(Message message) {
-        state.setLastMessageTimeStampNs(message.timeStampNs());
+        int icao = message.icaoAddress().value();
         switch (message) {
-            case AircraftIdentificationMessage aim -> {
-                state.setCategory(aim.category());
-                state.setCallSign(aim.callSign());
-            }
-
-            case AirbornePositionMessage apm -> {
-                state.setAltitude(apm.altitude());
-
-                messages[apm.parity()] = apm;
-
-                if (messages[PARITY_TABLE[apm.parity()]] != null) {
-                    GeoPos pos = decodePosition(
-                            messages[ODD_PARITY].x(), messages[ODD_PARITY].y(),
-                            messages[EVEN_PARITY].x(), messages[EVEN_PARITY].y(),
-                            apm.parity());
-                    if (pos != null && checkValidTimeStamps(apm)) state.setPosition(pos);
-                }
-            }
-
-            case AirborneVelocityMessage avm -> {
-                state.setVelocity(avm.speed());
-                state.setTrackOrHeading(avm.trackOrHeading());
-            }
+            case AircraftIdentificationMessage aim -> visitIdentification(
+                    aim.timeStampNs(), icao, aim.category(), aim.callSign());
+
+            case AirbornePositionMessage apm -> visitAirbornePosition(
+                    apm.timeStampNs(), icao, apm.altitude(), apm.parity(), apm.x(), apm.y());
+
+            case AirborneVelocityMessage avm -> visitAirborneVelocity(
+                    avm.timeStampNs(), icao, avm.speed(), avm.trackOrHeading());
+
             default -> throw new Error();
         }
     }
 
+    @Override
+    public void visitIdentification(long timeStampNs, int icao, int category, CallSign callSign) {
+        state.setLastMessageTimeStampNs(timeStampNs);
+        state.setCategory(category);
+        state.setCallSign(callSign);
+    }
+
+    @Override
+    public void visitAirbornePosition(long timeStampNs, int icao, double altitude, int parity,
+                                      double x, double y) {
+        state.setLastMessageTimeStampNs(timeStampNs);
+        state.setAltitude(altitude);
+
+        positionReceived[parity] = true;
+        positionTimeStampsNs[parity] = timeStampNs;
+        positionXs[parity] = x;
+        positionYs[parity] = y;
+
+        if (positionReceived[PARITY_TABLE[parity]]) {
+            GeoPos pos = decodePosition(
+                    positionXs[ODD_PARITY], positionYs[ODD_PARITY],
+                    positionXs[EVEN_PARITY], positionYs[EVEN_PARITY],
+                    parity);
+            if (pos != null && checkValidTimeStamps(timeStampNs, parity)) state.setPosition(pos);
+        }
+    }
+
+    @Override
+    public void visitAirborneVelocity(long timeStampNs, int icao, double speed, double trackOrHeading) {
+        state.setLastMessageTimeStampNs(timeStampNs);
+        state.setVelocity(speed);
+        state.setTrackOrHeading(trackOrHeading);
+    }
+
     /**
      * Determines if the position can be calculated
      *
-     * @param apm  (AirPositionMessage): Given message
+     * @param timeStampNs (long): Timestamp of the position message
+     * @param parity      (int): Parity of the position message
      * @return (boolean): True if the position can be calculated
      */
-    private boolean checkValidTimeStamps(AirbornePositionMessage apm) {
-        return apm.timeStampNs() - messages[PARITY_TABLE[apm.parity()]].timeStampNs() <= MAX_TIME;
+    private boolean checkValidTimeStamps(long timeStampNs, int parity) {
+        return timeStampNs - positionTimeStampsNs[PARITY_TABLE[parity]] <= MAX_TIME;
     }
 }
@@ -0,0 +1,147 @@
+package ch.epfl.javions.adsb;
+
+import ch.epfl.javions.Crc24;
+
+import static ch.epfl.javions.Preconditions.checkArgument;
+
+/**
+ * Public and Final: Represents a corrector of the transmission errors of raw ADS-B messages,
+ * capable of repairing the messages of which one or two bits have been flipped.
+ * Since every correction may also turn noise into a plausible message, the correction
+ * of two bits should only be enabled on a clean signal
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+public final class CrcCorrector {
+    /** Number of bits of a raw message*/
+    private static final int MESSAGE_BITS = RawMessage.LENGTH * Byte.SIZE;
+    /** Bits of the DF attribute, which are never corrected so that the message stays an ADS-B one*/
+    private static final int DF_BITS = 5;
+    private static final int TABLE_BITS = 14, TABLE_SIZE = 1 << TABLE_BITS;
+    private static final int EMPTY = 0, AMBIGUOUS = -1;
+    private static final int POSITION_SIZE = 8, POSITION_MASK = (1 << POSITION_SIZE) - 1;
+    private static final int NO_BIT = POSITION_MASK;
+    private static final int HASH_MULTIPLIER = 0x9E3779B1;
+    private static final Crc24 CRC24 = new Crc24(Crc24.GENERATOR);
+
+    private final int[] syndromes = new int[TABLE_SIZE];
+    private final int[] positions = new int[TABLE_SIZE];
+    private long corrected = 0, rejected = 0;
+
+    /**
+     * Default CrcCorrector constructor.
+     * Precomputes the table associating the syndrome of each correctable error to the
+     * positions of its flipped bits, the syndromes shared by several errors being discarded
+     *
+     * @param maxErrors (int): Maximum number of flipped bits to correct, 1 or 2
+     * @throws IllegalArgumentException If the maximum number of flipped bits is not 1 or 2
+     */
+    public CrcCorrector(int maxErrors) {
+        checkArgument(maxErrors == 1 || maxErrors == 2);
+
+        int[] bitSyndromes = new int[MESSAGE_BITS];
+        for (int i = DF_BITS; i < MESSAGE_BITS; i++) {
+            byte[] error = new byte[RawMessage.LENGTH];
+            flip(error, i);
+            bitSyndromes[i] = CRC24.crc(error);
+            insert(bitSyndromes[i], i, NO_BIT);
+        }
+
+        if (maxErrors == 2) {
+            for (int i = DF_BITS; i < MESSAGE_BITS; i++) {
+                for (int j = i + 1; j < MESSAGE_BITS; j++)
+                    insert(bitSyndromes[i] ^ bitSyndromes[j], i, j);
+            }
+        }
+    }
+
+    /**
+     * Corrects the given message, of which the CRC24 is equal to the given syndrome,
+     * by flipping back the bits at the origin of that syndrome
+     *
+     * @param bytes    (byte[]): Bytes of the message, corrected in place
+     * @param syndrome (int): CRC24 of the message, different from 0
+     * @return (boolean): True if the message has been corrected
+     * @throws IllegalArgumentException If the message is not LENGTH long
+     */
+    public boolean correct(byte[] bytes, int syndrome) {
+        checkArgument(bytes.length == RawMessage.LENGTH);
+
+        int slot = find(syndrome);
+        if (syndromes[slot] != syndrome || positions[slot] == AMBIGUOUS) {
+            ++rejected;
+            return false;
+        }
+
+        int first = positions[slot] & POSITION_MASK, second = positions[slot] >>> POSITION_SIZE;
+        flip(bytes, first);
+        if (second != NO_BIT) flip(bytes, second);
+
+        ++corrected;
+        return true;
+    }
+
+    /**
+     * Determines the number of messages corrected so far
+     *
+     * @return (long): Number of corrected messages
+     */
+    public long corrected() {
+        return corrected;
+    }
+
+    /**
+     * Determines the number of messages that could not be corrected so far
+     *
+     * @return (long): Number of rejected messages
+     */
+    public long rejected() {
+        return rejected;
+    }
+
+    /**
+     * Associates the given syndrome to the given positions, or marks it as ambiguous
+     * if it is already associated to other ones
+     *
+     * @param syndrome (int): Syndrome of the error
+     * @param first    (int): Position of the first flipped bit
+     * @param second   (int): Position of the second flipped bit, or NO_BIT
+     */
+    private void insert(int syndrome, int first, int second) {
+        int slot = find(syndrome);
+
+        if (syndromes[slot] == syndrome) {
+            positions[slot] = AMBIGUOUS;
+        } else {
+            syndromes[slot] = syndrome;
+            positions[slot] = first | second << POSITION_SIZE;
+        }
+    }
+
+    /**
+     * Finds the slot of the table containing the given syndrome, or the empty slot where
+     * it should be inserted, by linear probing
+     *
+     * @param syndrome (int): Given syndrome, different from 0
+     * @return (int): Slot of the syndrome
+     */
+    private int find(int syndrome) {
+        int slot = (syndrome * HASH_MULTIPLIER) >>> (Integer.SIZE - TABLE_BITS);
+
+        while (syndromes[slot] != EMPTY && syndromes[slot] != syndrome)
+            slot = (slot + 1) & (TABLE_SIZE - 1);
+
+        return slot;
+    }
+
+    /**
+     * Flips the bit at the given position of the message, the bits being numbered
+     * from the most significant bit of the first byte
+     *
+     * @param bytes    (byte[]): Bytes of the message
+     * @param position (int): Position of the bit
+     */
+    private static void flip(byte[] bytes, int position) {
+        bytes[position / Byte.SIZE] ^= (byte) (1 << (Byte.SIZE - 1 - position % Byte.SIZE));
+    }
+}
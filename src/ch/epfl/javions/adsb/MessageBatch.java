@@ -0,0 +1,290 @@
+package ch.epfl.javions.adsb;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.function.IntPredicate;
+
+import static ch.epfl.javions.Preconditions.checkArgument;
+
+/**
+ * Public and Final: Represents a batch of messages read from a recorded file, in which each
+ * record is a timestamp of 8 bytes followed by the 14 bytes of the message. The messages are
+ * decoded in a single pass into primitive columns, one row per valid message, so that no
+ * object is created per record and a batch can be reused to scan files of any size
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+public final class MessageBatch {
+    /** Length of a record: its timestamp followed by the bytes of its message*/
+    public static final int RECORD_LENGTH = Long.BYTES + RawMessage.LENGTH;
+    private static final int HIGH_INT_OFFSET = Long.BYTES, HIGH_SHORT_OFFSET = HIGH_INT_OFFSET + Integer.BYTES;
+    private static final int LOW_OFFSET = HIGH_SHORT_OFFSET + Short.BYTES;
+    private final ByteBuffer records;
+    private final long[] timeStampsNs, payloads;
+    private final int[] icaos;
+    private final byte[] typeCodes, parities;
+    private final double[] altitudes, speeds, trackOrHeadings;
+    private final float[] xs, ys;
+    private final MessageVisitor rowWriter = new RowWriter();
+    private int size = 0;
+
+    /**
+     * Default MessageBatch constructor.
+     * Defines an empty batch able to hold the given number of records
+     *
+     * @param capacity (int): Maximum number of records read at once
+     * @throws IllegalArgumentException If the capacity is not strictly positive or too large
+     */
+    public MessageBatch(int capacity) {
+        checkArgument(0 < capacity && capacity <= Integer.MAX_VALUE / RECORD_LENGTH);
+
+        records = ByteBuffer.allocate(capacity * RECORD_LENGTH);
+        timeStampsNs = new long[capacity];
+        payloads = new long[capacity];
+        icaos = new int[capacity];
+        typeCodes = new byte[capacity];
+        parities = new byte[capacity];
+        altitudes = new double[capacity];
+        speeds = new double[capacity];
+        trackOrHeadings = new double[capacity];
+        xs = new float[capacity];
+        ys = new float[capacity];
+    }
+
+    /**
+     * Reads and decodes the next records of the given channel, as many as the capacity allows,
+     * the rows of the previous ones being replaced. A truncated last record is ignored
+     *
+     * @param channel (ReadableByteChannel): Blocking channel of the recorded file
+     * @return (int): Number of records read, 0 once the end of the channel is reached
+     * @throws IOException If there is an Input/Output error
+     */
+    public int read(ReadableByteChannel channel) throws IOException {
+        records.clear();
+        while (records.hasRemaining() && channel.read(records) != -1) {}
+
+        int count = records.position() / RECORD_LENGTH;
+        size = 0;
+        for (int offset = 0; offset < count * RECORD_LENGTH; offset += RECORD_LENGTH) {
+            long timeStampNs = records.getLong(offset);
+            long high = Integer.toUnsignedLong(records.getInt(offset + HIGH_INT_OFFSET)) << Short.SIZE
+                    | Short.toUnsignedLong(records.getShort(offset + HIGH_SHORT_OFFSET));
+            long low = records.getLong(offset + LOW_OFFSET);
+
+            int typeCode = RawFrame.typeCode(high);
+            long payload = RawFrame.payload(high, low);
+            typeCodes[size] = (byte) typeCode;
+            payloads[size] = payload;
+
+            if (MessageParser.isIdentification(typeCode)) {
+                // The call sign is only created when it is asked for
+                if (AircraftIdentificationMessage.hasValidCallSign(payload))
+                    writeRow(timeStampNs, RawFrame.icao(high), Double.NaN, 0, Float.NaN, Float.NaN,
+                            Double.NaN, Double.NaN);
+            } else {
+                MessageParser.decode(timeStampNs, high, low, rowWriter);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Determines the number of valid messages of the batch, i.e. of rows
+     *
+     * @return (int): Number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the timestamp of the message of the given row
+     *
+     * @param row (int): Index of the row
+     * @return (long): Timestamp expressed in nanoseconds
+     */
+    public long timeStampNs(int row) {
+        return timeStampsNs[row];
+    }
+
+    /**
+     * Returns the ICAO address of the sender of the message of the given row
+     *
+     * @param row (int): Index of the row
+     * @return (int): The 24 bits of the ICAO address
+     */
+    public int icao(int row) {
+        return icaos[row];
+    }
+
+    /**
+     * Returns the type code of the message of the given row
+     *
+     * @param row (int): Index of the row
+     * @return (int): Type code
+     */
+    public int typeCode(int row) {
+        return typeCodes[row];
+    }
+
+    /**
+     * Returns the altitude of the message of the given row
+     *
+     * @param row (int): Index of the row
+     * @return (double): Altitude, or NaN if it is not a position message
+     */
+    public double altitude(int row) {
+        return altitudes[row];
+    }
+
+    /**
+     * Returns the parity of the message of the given row
+     *
+     * @param row (int): Index of the row
+     * @return (int): Parity, or 0 if it is not a position message
+     */
+    public int parity(int row) {
+        return parities[row];
+    }
+
+    /**
+     * Returns the local normalized longitude of the message of the given row
+     *
+     * @param row (int): Index of the row
+     * @return (float): Local normalized longitude, or NaN if it is not a position message
+     */
+    public float x(int row) {
+        return xs[row];
+    }
+
+    /**
+     * Returns the local normalized latitude of the message of the given row
+     *
+     * @param row (int): Index of the row
+     * @return (float): Local normalized latitude, or NaN if it is not a position message
+     */
+    public float y(int row) {
+        return ys[row];
+    }
+
+    /**
+     * Returns the speed of the message of the given row
+     *
+     * @param row (int): Index of the row
+     * @return (double): Speed, or NaN if it is not a velocity message
+     */
+    public double speed(int row) {
+        return speeds[row];
+    }
+
+    /**
+     * Returns the direction of the message of the given row
+     *
+     * @param row (int): Index of the row
+     * @return (double): Track or heading, or NaN if it is not a velocity message
+     */
+    public double trackOrHeading(int row) {
+        return trackOrHeadings[row];
+    }
+
+    /**
+     * Determines the category of the aircraft of the message of the given row
+     *
+     * @param row (int): Index of the row
+     * @return (int): Category, only meaningful for an identification message
+     */
+    public int category(int row) {
+        return AircraftIdentificationMessage.categoryCalculator(payloads[row], typeCodes[row]);
+    }
+
+    /**
+     * Determines the call sign of the message of the given row
+     *
+     * @param row (int): Index of the row
+     * @return (CallSign): Call sign, or null if it is not an identification message
+     */
+    public CallSign callSign(int row) {
+        return MessageParser.isIdentification(typeCodes[row])
+                ? AircraftIdentificationMessage.callSign(payloads[row])
+                : null;
+    }
+
+    /**
+     * Selects the rows satisfying the given predicate, in order
+     *
+     * @param predicate (IntPredicate): Predicate on the index of a row
+     * @param rows      (int[]): Array receiving the indices of the selected rows
+     * @return (int): Number of selected rows
+     * @throws IndexOutOfBoundsException If the array is too small for the selected rows
+     */
+    public int select(IntPredicate predicate, int[] rows) {
+        int selected = 0;
+        for (int row = 0; row < size; row++)
+            if (predicate.test(row)) rows[selected++] = row;
+        return selected;
+    }
+
+    /**
+     * Gives the content of each row, in order, to the matching method of the visitor
+     *
+     * @param visitor (MessageVisitor): Visitor receiving the content of the rows
+     */
+    public void forEach(MessageVisitor visitor) {
+        for (int row = 0; row < size; row++) {
+            if (MessageParser.isIdentification(typeCodes[row]))
+                visitor.visitIdentification(timeStampsNs[row], icaos[row], category(row), callSign(row));
+            else if (Double.isNaN(altitudes[row]))
+                visitor.visitAirborneVelocity(timeStampsNs[row], icaos[row], speeds[row], trackOrHeadings[row]);
+            else
+                visitor.visitAirbornePosition(timeStampsNs[row], icaos[row], altitudes[row],
+                        parities[row], xs[row], ys[row]);
+        }
+    }
+
+    /**
+     * Writes a new row with the given values, the type code and the payload having been written
+     *
+     * @param timeStampNs    (long): Timestamp of the message
+     * @param icao           (int): The 24 bits of the ICAO address of the sender
+     * @param altitude       (double): Altitude
+     * @param parity         (int): Parity
+     * @param x              (float): Local normalized longitude
+     * @param y              (float): Local normalized latitude
+     * @param speed          (double): Speed
+     * @param trackOrHeading (double): Track or heading
+     */
+    private void writeRow(long timeStampNs, int icao, double altitude, int parity, float x, float y,
+                          double speed, double trackOrHeading) {
+        timeStampsNs[size] = timeStampNs;
+        icaos[size] = icao;
+        altitudes[size] = altitude;
+        parities[size] = (byte) parity;
+        xs[size] = x;
+        ys[size] = y;
+        speeds[size] = speed;
+        trackOrHeadings[size] = trackOrHeading;
+        ++size;
+    }
+
+    /**
+     * Represents the writer of the decoded position and velocity messages into the columns
+     */
+    private final class RowWriter implements MessageVisitor {
+        @Override
+        public void visitIdentification(long timeStampNs, int icao, int category, CallSign callSign) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void visitAirbornePosition(long timeStampNs, int icao, double altitude, int parity,
+                                          double x, double y) {
+            writeRow(timeStampNs, icao, altitude, parity, (float) x, (float) y, Double.NaN, Double.NaN);
+        }
+
+        @Override
+        public void visitAirborneVelocity(long timeStampNs, int icao, double speed, double trackOrHeading) {
+            writeRow(timeStampNs, icao, Double.NaN, 0, Float.NaN, Float.NaN, speed, trackOrHeading);
+        }
+    }
+}
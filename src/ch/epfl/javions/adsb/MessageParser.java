@@ -30,16 +30,86 @@ public final class MessageParser {
         if (typeCode == VELOCITY_TYPE_CODE)
             return AirborneVelocityMessage.of(rawMessage);
 
-        if ((POSITION_TYPE_CODE_1 <= rawMessage.typeCode() &&
-                        rawMessage.typeCode() <= POSITION_TYPE_CODE_2) ||
-                (POSITION_TYPE_CODE_3 <= rawMessage.typeCode() &&
-                        rawMessage.typeCode() <= POSITION_TYPE_CODE_4))
+        if ((POSITION_TYPE_CODE_1 <= typeCode && typeCode <= POSITION_TYPE_CODE_2) ||
+                (POSITION_TYPE_CODE_3 <= typeCode && typeCode <= POSITION_TYPE_CODE_4))
             return AirbornePositionMessage.of(rawMessage);
 
 
-        if (IDENTIFICATION_TYPE_1 <= typeCode && typeCode <= IDENTIFICATION_TYPE_2)
+        if (isIdentification(typeCode))
             return AircraftIdentificationMessage.of(rawMessage);
 
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Decodes the given frame, giving its content to the matching method of the visitor
+     * without creating any message
+     *
+     * @param frame   (RawFrame): Given frame
+     * @param visitor (MessageVisitor): Visitor receiving the content of the frame
+     * @return (boolean): True if the frame has been given to the visitor, false if it is not
+     * of a known type or if its content is invalid
+     */
+    public static boolean decode(RawFrame frame, MessageVisitor visitor) {
+        return decode(frame.timeStampNs(), frame.high(), frame.low(), visitor);
+    }
+
+    /**
+     * Decodes the frame of the given parts, giving its content to the matching method of the
+     * visitor without creating any message
+     *
+     * @param timeStampNs (long): Timestamp of the frame expressed in nanoseconds
+     * @param high        (long): Bytes 0 to 5 of the frame, in the 48 LSBs
+     * @param low         (long): Bytes 6 to 13 of the frame
+     * @param visitor     (MessageVisitor): Visitor receiving the content of the frame
+     * @return (boolean): True if the frame has been given to the visitor, false if it is not
+     * of a known type or if its content is invalid
+     */
+    public static boolean decode(long timeStampNs, long high, long low, MessageVisitor visitor) {
+        int typeCode = RawFrame.typeCode(high);
+        int icao = RawFrame.icao(high);
+        long payload = RawFrame.payload(high, low);
+
+        if (typeCode == VELOCITY_TYPE_CODE) {
+            double speed = AirborneVelocityMessage.speed(payload);
+            double trackOrHeading = AirborneVelocityMessage.trackOrHeading(payload);
+            if (Double.isNaN(speed) || Double.isNaN(trackOrHeading)) return false;
+
+            visitor.visitAirborneVelocity(timeStampNs, icao, speed, trackOrHeading);
+            return true;
+        }
+
+        if ((POSITION_TYPE_CODE_1 <= typeCode && typeCode <= POSITION_TYPE_CODE_2) ||
+                (POSITION_TYPE_CODE_3 <= typeCode && typeCode <= POSITION_TYPE_CODE_4)) {
+            double altitude = AirbornePositionMessage.altitude(payload);
+            if (Double.isNaN(altitude)) return false;
+
+            visitor.visitAirbornePosition(timeStampNs, icao, altitude,
+                    AirbornePositionMessage.parity(payload),
+                    AirbornePositionMessage.x(payload),
+                    AirbornePositionMessage.y(payload));
+            return true;
+        }
+
+        if (isIdentification(typeCode)) {
+            CallSign callSign = AircraftIdentificationMessage.callSign(payload);
+            if (callSign == null) return false;
+
+            visitor.visitIdentification(timeStampNs, icao,
+                    AircraftIdentificationMessage.categoryCalculator(payload, typeCode), callSign);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Determines whether the given type code is the one of an identification message
+     *
+     * @param typeCode (int): Given type code
+     * @return (boolean): True if it is an identification type code
+     */
+    static boolean isIdentification(int typeCode) {
+        return IDENTIFICATION_TYPE_1 <= typeCode && typeCode <= IDENTIFICATION_TYPE_2;
+    }
+}
@@ -0,0 +1,43 @@
+package ch.epfl.javions.adsb;
+
+/**
+ * Public: Defines methods receiving the content of the decoded messages as primitive values,
+ * so that no message has to be created for each frame
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+public interface MessageVisitor {
+
+    /**
+     * Receives the content of an identification message
+     *
+     * @param timeStampNs (long): Timestamp of the message expressed in nanoseconds
+     * @param icao        (int): The 24 bits of the ICAO address of the sender
+     * @param category    (int): Category of the aircraft
+     * @param callSign    (CallSign): Call sign of the sender
+     */
+    void visitIdentification(long timeStampNs, int icao, int category, CallSign callSign);
+
+    /**
+     * Receives the content of an airborne position message
+     *
+     * @param timeStampNs (long): Timestamp of the message expressed in nanoseconds
+     * @param icao        (int): The 24 bits of the ICAO address of the sender
+     * @param altitude    (double): Altitude at which the aircraft was located
+     * @param parity      (int): Parity of the message
+     * @param x           (double): Local normalized longitude at which the aircraft was located
+     * @param y           (double): Local normalized latitude at which the aircraft was located
+     */
+    void visitAirbornePosition(long timeStampNs, int icao, double altitude, int parity,
+                               double x, double y);
+
+    /**
+     * Receives the content of an airborne velocity message
+     *
+     * @param timeStampNs    (long): Timestamp of the message expressed in nanoseconds
+     * @param icao           (int): The 24 bits of the ICAO address of the sender
+     * @param speed          (double): Speed of the aircraft
+     * @param trackOrHeading (double): Direction of the movement of the aircraft
+     */
+    void visitAirborneVelocity(long timeStampNs, int icao, double speed, double trackOrHeading);
+}
@@ -0,0 +1,164 @@
+package ch.epfl.javions.adsb;
+
+import ch.epfl.javions.ByteString;
+import ch.epfl.javions.Crc24;
+
+import java.util.Objects;
+
+import static ch.epfl.javions.Preconditions.checkArgument;
+
+/**
+ * Public: Represents a raw ADS-B frame packed into two longs, the first 6 bytes of the frame
+ * being in the 48 least significant bits of high and its last 8 bytes in low, the first byte
+ * of each part being its most significant one. Its attributes are extracted by constant-time
+ * shifts, without any allocation
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+public record RawFrame(long timeStampNs, long high, long low) {
+    private static final int HIGH_BYTES = Crc24.HIGH_BYTES;
+    private static final int DF_START = 43, DF_SIZE = 5;
+    private static final int ICAO_START = 16, ICAO_SIZE = 24;
+    private static final int TYPE_CODE_START = 11, TYPE_CODE_SIZE = 5;
+    /** Number of bits of the payload in high (bytes 4 and 5), the others being the MSBs of low*/
+    private static final int PAYLOAD_HIGH_SIZE = 16, PAYLOAD_SIZE = 56;
+
+    /**
+     * Compact constructor of RawFrame
+     *
+     * @param timeStampNs (long): Timestamp of the frame expressed in nanoseconds
+     * @param high        (long): Bytes 0 to 5 of the frame
+     * @param low         (long): Bytes 6 to 13 of the frame
+     * @throws IllegalArgumentException If the timestamp is negative or if high has bits set
+     * beyond its 48 least significant ones
+     */
+    public RawFrame {
+        checkArgument(0 <= timeStampNs);
+        checkArgument((high >>> (HIGH_BYTES * Byte.SIZE)) == 0);
+    }
+
+    /**
+     * Packs the given bytes into a frame with the given timestamp
+     *
+     * @param timeStampNs (long): Given timestamp
+     * @param bytes       (byte[]): Given bytes
+     * @return (RawFrame): The packed frame
+     * @throws IllegalArgumentException If the timestamp is negative or if the bytes
+     * aren't RawMessage.LENGTH long
+     */
+    public static RawFrame of(long timeStampNs, byte[] bytes) {
+        checkArgument(bytes.length == RawMessage.LENGTH);
+
+        return new RawFrame(timeStampNs, Crc24.packHigh(bytes), Crc24.packLow(bytes));
+    }
+
+    /**
+     * Packs the given string of bytes into a frame with the given timestamp
+     *
+     * @param timeStampNs (long): Given timestamp
+     * @param bytes       (ByteString): Given bytes
+     * @return (RawFrame): The packed frame
+     * @throws IllegalArgumentException If the timestamp is negative or if the string
+     * of bytes isn't RawMessage.LENGTH long
+     */
+    public static RawFrame of(long timeStampNs, ByteString bytes) {
+        checkArgument(bytes.size() == RawMessage.LENGTH);
+
+        return new RawFrame(timeStampNs,
+                bytes.bytesInRange(0, HIGH_BYTES), bytes.bytesInRange(HIGH_BYTES, bytes.size()));
+    }
+
+    /**
+     * Returns the unsigned byte of the frame located at the given index
+     *
+     * @param index (int): Index of the byte
+     * @return (int): Unsigned byte
+     * @throws IndexOutOfBoundsException If the index is not valid
+     */
+    public int byteAt(int index) {
+        Objects.checkIndex(index, RawMessage.LENGTH);
+
+        return index < HIGH_BYTES
+                ? (int) (high >>> ((HIGH_BYTES - 1 - index) * Byte.SIZE)) & 0xFF
+                : (int) (low >>> ((RawMessage.LENGTH - 1 - index) * Byte.SIZE)) & 0xFF;
+    }
+
+    /**
+     * Determines the bytes of the frame
+     *
+     * @return (ByteString): Bytes of the frame
+     */
+    public ByteString bytes() {
+        byte[] bytes = new byte[RawMessage.LENGTH];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = (byte) byteAt(i);
+        return new ByteString(bytes);
+    }
+
+    /**
+     * Determines the DF attribute of the frame
+     *
+     * @return (int): DF attribute
+     */
+    public int downLinkFormat() {
+        return (int) (high >>> DF_START) & ((1 << DF_SIZE) - 1);
+    }
+
+    /**
+     * Determines the ICAO Address of the sender, as an integer
+     *
+     * @return (int): The 24 bits of the ICAO Address
+     */
+    public int icao() {
+        return icao(high);
+    }
+
+    /**
+     * Determines the ME attribute of the frame
+     *
+     * @return (long): ME attribute
+     */
+    public long payload() {
+        return payload(high, low);
+    }
+
+    /**
+     * Determines the type code of the frame
+     *
+     * @return (int): Type code
+     */
+    public int typeCode() {
+        return typeCode(high);
+    }
+
+    /**
+     * Determines the ICAO Address of the sender of the frame of the given high part
+     *
+     * @param high (long): Bytes 0 to 5 of the frame
+     * @return (int): The 24 bits of the ICAO Address
+     */
+    static int icao(long high) {
+        return (int) (high >>> ICAO_START) & ((1 << ICAO_SIZE) - 1);
+    }
+
+    /**
+     * Determines the ME attribute of the frame of the given parts
+     *
+     * @param high (long): Bytes 0 to 5 of the frame
+     * @param low  (long): Bytes 6 to 13 of the frame
+     * @return (long): ME attribute
+     */
+    static long payload(long high, long low) {
+        return (high & ((1L << PAYLOAD_HIGH_SIZE) - 1)) << (PAYLOAD_SIZE - PAYLOAD_HIGH_SIZE)
+                | low >>> (Long.SIZE - PAYLOAD_SIZE + PAYLOAD_HIGH_SIZE);
+    }
+
+    /**
+     * Determines the type code of the frame of the given high part
+     *
+     * @param high (long): Bytes 0 to 5 of the frame
+     * @return (int): Type code
+     */
+    static int typeCode(long high) {
+        return (int) (high >>> TYPE_CODE_START) & ((1 << TYPE_CODE_SIZE) - 1);
+    }
+}
@@ -4,40 +4,48 @@ import ch.epfl.javions.ByteString;
 import ch.epfl.javions.Crc24;
 import ch.epfl.javions.aircraft.IcaoAddress;
 
-import java.util.HexFormat;
+import java.util.Objects;
 
 import static ch.epfl.javions.Bits.extractUInt;
-import static ch.epfl.javions.Preconditions.checkArgument;
 
 /**
- * Public: Represents a raw ADS-B message, i.e. a message of
- * which the ME attribute has not been analyzed yet
+ * Public and Final: Represents a raw ADS-B message, i.e. a message of
+ * which the ME attribute has not been analyzed yet. It is a thin adapter of
+ * a packed frame, of which it keeps the string of bytes interface
  *
  * @author Pablo Robin Guerrero (356671)
  */
-public record RawMessage(long timeStampNs, ByteString bytes) {
+public final class RawMessage {
     /** Integer representing the length of a raw message*/
     public static final int LENGTH = 14;
-    private static final int DF_VALID_VALUE = 17, DF_CA_START_INDEX = 0;
+    private static final int DF_VALID_VALUE = 17;
     private static final int ME_MSB_START_POSITION = 51, ME_MSB_SIZE = 5;
-    private static final int ME_END_INDEX = 10;
-    private static final int CA_SIZE = 3, DF_SIZE = 5;
-    private static final int ICAO_ADDRESS_START_INDEX = 1,
-            ICAO_ADDRESS_END_INDEX = 3, ICAO_ADDRESS_LENGTH = 3;
-    private static final HexFormat HEX_FORMAT = HexFormat.of().withUpperCase();
+    private static final int CA_SIZE = 3;
     private static final Crc24 CRC24 = new Crc24(Crc24.GENERATOR);
+    private final RawFrame frame;
 
     /**
-     * Compact constructor of RawMessage
+     * Default RawMessage constructor.
+     * Defines the message with the given timestamp and bytes
      *
      * @param timeStampNs (long): Timestamp of the message expressed in nanoseconds
      * @param bytes       (ByteString): Bytes of the message
      * @throws IllegalArgumentException If the timestamp is negative or if the
      * string of bytes isn't LENGTH long.
      */
-    public RawMessage {
-        checkArgument(0 <= timeStampNs);
-        checkArgument(bytes.size() == LENGTH);
+    public RawMessage(long timeStampNs, ByteString bytes) {
+        this(RawFrame.of(timeStampNs, bytes));
+    }
+
+    /**
+     * RawMessage constructor.
+     * Defines the message of the given packed frame
+     *
+     * @param frame (RawFrame): Packed frame of the message
+     * @throws NullPointerException If the frame is null
+     */
+    public RawMessage(RawFrame frame) {
+        this.frame = Objects.requireNonNull(frame);
     }
 
     /**
@@ -48,7 +56,26 @@ public record RawMessage(long timeStampNs, ByteString bytes) {
      * @return (RawMessage): The message or null if the bytes' CRC24 isn't equal to 0
      */
     public static RawMessage of(long timeStampNs, byte[] bytes) {
-        return CRC24.crc(bytes) == 0 ? new RawMessage(timeStampNs, new ByteString(bytes)) : null;
+        return CRC24.crc(bytes, 0, bytes.length) == 0
+                ? new RawMessage(RawFrame.of(timeStampNs, bytes))
+                : null;
+    }
+
+    /**
+     * Determines the raw ADS-B message with the given timestamp and bytes,
+     * correcting them with the given corrector if their CRC24 isn't equal to 0
+     *
+     * @param timeStampNs (long): Given timestamp
+     * @param bytes       (byte[]): Given bytes, corrected in place
+     * @param corrector   (CrcCorrector): Given corrector
+     * @return (RawMessage): The message or null if the bytes could not be corrected
+     */
+    public static RawMessage of(long timeStampNs, byte[] bytes, CrcCorrector corrector) {
+        int crc = CRC24.crc(bytes, 0, bytes.length);
+
+        return crc == 0 || corrector.correct(bytes, crc)
+                ? new RawMessage(RawFrame.of(timeStampNs, bytes))
+                : null;
     }
 
     /**
@@ -71,13 +98,40 @@ public record RawMessage(long timeStampNs, ByteString bytes) {
         return extractUInt(payload, ME_MSB_START_POSITION, ME_MSB_SIZE);
     }
 
+    /**
+     * Returns the packed frame of the message
+     *
+     * @return (RawFrame): Packed frame
+     */
+    public RawFrame frame() {
+        return frame;
+    }
+
+    /**
+     * Returns the timestamp of the message
+     *
+     * @return (long): Timestamp expressed in nanoseconds
+     */
+    public long timeStampNs() {
+        return frame.timeStampNs();
+    }
+
+    /**
+     * Determines the bytes of the message
+     *
+     * @return (ByteString): Bytes of the message
+     */
+    public ByteString bytes() {
+        return frame.bytes();
+    }
+
     /**
      * Determines the DF attribute stored in the first byte
      *
      * @return (int): DF attribute
      */
     public int downLinkFormat() {
-        return extractUInt(bytes.byteAt(DF_CA_START_INDEX), CA_SIZE, DF_SIZE);
+        return frame.downLinkFormat();
     }
 
     /** Determines the ICAO Address of the sender
@@ -85,9 +139,7 @@ public record RawMessage(long timeStampNs, ByteString bytes) {
      * @return (IcaoAddress): The ICAO Address
      */
     public IcaoAddress icaoAddress() {
-        return new IcaoAddress(HEX_FORMAT
-                .toHexDigits(bytes.bytesInRange(ICAO_ADDRESS_START_INDEX, ICAO_ADDRESS_END_INDEX + 1),
-                        ICAO_ADDRESS_LENGTH * 2));
+        return IcaoAddress.of(frame.icao());
     }
 
     /**
@@ -96,7 +148,7 @@ public record RawMessage(long timeStampNs, ByteString bytes) {
      * @return (long): ME attribute
      */
     public long payload() {
-        return bytes.bytesInRange(ICAO_ADDRESS_END_INDEX + 1, ME_END_INDEX + 1);
+        return frame.payload();
     }
 
     /**
@@ -105,6 +157,21 @@ public record RawMessage(long timeStampNs, ByteString bytes) {
      * @return (int): Type code
      */
     public int typeCode() {
-        return typeCode(payload());
+        return frame.typeCode();
+    }
+
+    @Override
+    public boolean equals(Object that) {
+        return that instanceof RawMessage thatMessage && frame.equals(thatMessage.frame);
+    }
+
+    @Override
+    public int hashCode() {
+        return frame.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "RawMessage[timeStampNs=" + timeStampNs() + ", bytes=" + bytes() + "]";
     }
 }
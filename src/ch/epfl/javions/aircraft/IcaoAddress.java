@@ -1,25 +1,107 @@
 package ch.epfl.javions.aircraft;
 
+import java.util.HexFormat;
 import java.util.regex.Pattern;
 
 import static ch.epfl.javions.Preconditions.checkArgument;
 
 /**
- * Public: Represents an ICAO address of an aircraft
+ * Public and Final: Represents an ICAO address of an aircraft, identified by its 24 bits.
+ * The addresses of the received messages are obtained through a bounded cache interning the
+ * addresses of the live aircraft, and are only formatted as a string when it is asked for
  *
  * @author Pablo Robin Guerrero (356671)
  */
-public record IcaoAddress(String string) {
+public final class IcaoAddress {
     private static final Pattern ICAO = Pattern.compile("[0-9A-F]{6}");
+    private static final HexFormat HEX_FORMAT = HexFormat.of().withUpperCase();
+    private static final int ICAO_BITS = 24, HEX_DIGITS = ICAO_BITS / 4;
+    private static final int CACHE_BITS = 12;
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+    /**
+     * Direct-mapped cache of the addresses, an address evicting the one of its slot. Its races
+     * are benign, as an address only depends on its final value
+     */
+    private static final IcaoAddress[] CACHE = new IcaoAddress[1 << CACHE_BITS];
+    private final int value;
+    private String string;
 
     /**
-     * Compact constructor of IcaoAddress.
+     * Default IcaoAddress constructor.
      * Determines whether the given string is valid or not
      *
      * @param string (String): String to which to determine validity
      * @throws IllegalArgumentException If the ICAO address doesn't match the pattern
      */
-    public IcaoAddress {
+    public IcaoAddress(String string) {
         checkArgument(ICAO.matcher(string).matches());
+
+        this.value = Integer.parseInt(string, 16);
+        this.string = string;
+    }
+
+    /**
+     * IcaoAddress constructor.
+     * Defines the address of the given bits, which are supposed valid
+     *
+     * @param value (int): The 24 bits of the address
+     */
+    private IcaoAddress(int value) {
+        this.value = value;
+    }
+
+    /**
+     * Gives the ICAO address of the given bits, interned as long as its aircraft is live
+     *
+     * @param value (int): The 24 bits of the address
+     * @return (IcaoAddress): The ICAO address
+     * @throws IllegalArgumentException If the value has bits set beyond its 24 least significant ones
+     */
+    public static IcaoAddress of(int value) {
+        checkArgument((value >>> ICAO_BITS) == 0);
+
+        int slot = (value * HASH_MULTIPLIER) >>> (Integer.SIZE - CACHE_BITS);
+        IcaoAddress cached = CACHE[slot];
+        if (cached != null && cached.value == value) return cached;
+
+        IcaoAddress address = new IcaoAddress(value);
+        CACHE[slot] = address;
+        return address;
+    }
+
+    /**
+     * Returns the bits of the address
+     *
+     * @return (int): The 24 bits of the address
+     */
+    public int value() {
+        return value;
+    }
+
+    /**
+     * Returns the address as a string of 6 uppercase hexadecimal digits, formatted on the
+     * first call
+     *
+     * @return (String): The address as a string
+     */
+    public String string() {
+        String s = string;
+        if (s == null) string = s = HEX_FORMAT.toHexDigits(value, HEX_DIGITS);
+        return s;
+    }
+
+    @Override
+    public boolean equals(Object that0) {
+        return that0 instanceof IcaoAddress that && value == that.value;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+        return "IcaoAddress[string=" + string() + "]";
     }
-}
\ No newline at end of file
+}
@@ -1,22 +1,37 @@
 package ch.epfl.javions.demodulation;
 
+import ch.epfl.javions.Crc24;
+import ch.epfl.javions.adsb.CrcCorrector;
+import ch.epfl.javions.adsb.RawFrame;
 import ch.epfl.javions.adsb.RawMessage;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+
+import static ch.epfl.javions.Preconditions.checkArgument;
 
 /**
  * Public and Final: Represents a demodulator for ADS-B messages
  *
  * @author Pablo Robin Guerrero (356671)
  */
-public final class AdsbDemodulator {
-    private static final int CST_PREAMBLE_ONE = 80, CST_PREAMBLE_TWO = 85, CST_PREAMBLE_THREE = 10;
-    private static final int CONVERT_TO_TIMESTAMP_NS = 100;
-    private static final int WINDOW_SIZE = 1200;
-    private static final int PULSE_WEIGHT = 5;
+public final class AdsbDemodulator implements Closeable {
+    /** Positions of the two halves of the first bit and spacing of the bits, in pulse widths*/
+    private static final int CST_PREAMBLE_ONE = 16, CST_PREAMBLE_TWO = 17, CST_PREAMBLE_THREE = 2;
+    /** Index of the first of the 3 parity bytes ending a message*/
+    private static final int PARITY_INDEX = RawMessage.LENGTH - 3;
+    private static final int ABORTED = -1;
+    private static final Crc24 CRC24 = new Crc24(Crc24.GENERATOR);
+    private final SampleSource source;
     private final PowerWindow powerWindow;
+    private final int pulseWeight, windowSize, sampleDurationNs;
     private final byte[] message;
+    private double squelchLevel = 0;
+    private CrcCorrector crcCorrector = null;
+    private long scannedSamples = 0, skippedSamples = 0, abortedCandidates = 0;
 
     /**
      * Default AdsbDemodulator constructor.
@@ -26,10 +41,158 @@ public final class AdsbDemodulator {
      * @throws IOException If there is an Input/Output error
      */
     public AdsbDemodulator(InputStream samplesStream) throws IOException {
-        powerWindow = new PowerWindow(samplesStream, WINDOW_SIZE);
+        this(new StreamSampleSource(samplesStream), SampleFormat.AIRSPY, 0);
+    }
+
+    /**
+     * Defines a demodulator receiving the bytes of the given stream, which are read ahead by a
+     * dedicated thread into the given number of recycled buffers, so that reading the stream,
+     * typically the standard input fed by the AirSpy, and demodulating its samples overlap
+     *
+     * @param samplesStream (InputStream): Given stream
+     * @param bufferCount   (int): Number of buffers read ahead, at least 2
+     * @throws IOException If there is an Input/Output error
+     * @throws IllegalArgumentException If there are fewer than 2 buffers
+     */
+    public AdsbDemodulator(InputStream samplesStream, int bufferCount) throws IOException {
+        this(new ReadAheadSampleSource(samplesStream, bufferCount), SampleFormat.AIRSPY, 0);
+    }
+
+    /**
+     * Defines a demodulator reading the samples straight from the
+     * memory-mapped file of the given channel, typically a recorded AirSpy capture
+     *
+     * @param samplesChannel (FileChannel): Channel of the recorded file
+     * @throws IOException If there is an Input/Output error
+     */
+    public AdsbDemodulator(FileChannel samplesChannel) throws IOException {
+        this(new MappedSampleSource(samplesChannel), SampleFormat.AIRSPY, 0);
+    }
+
+    /**
+     * Defines a demodulator receiving the samples of the given format from the given stream,
+     * for instance the unsigned 8-bit I/Q pairs of an RTL-SDR
+     *
+     * @param samplesStream (InputStream): Given stream
+     * @param format        (SampleFormat): Format of the samples
+     * @throws IOException If there is an Input/Output error
+     */
+    public AdsbDemodulator(InputStream samplesStream, SampleFormat format) throws IOException {
+        this(new StreamSampleSource(samplesStream), format, 0);
+    }
+
+    /**
+     * Defines a demodulator receiving the samples of the given format from the given socket,
+     * connected to an rtl_tcp-style server already tuned to 1090 MHz. The socket is read in
+     * non-blocking mode, straight into a direct buffer
+     *
+     * @param samplesChannel (SocketChannel): Socket connected to the server
+     * @param format         (SampleFormat): Format of the samples
+     * @throws IOException If there is an Input/Output error
+     */
+    public AdsbDemodulator(SocketChannel samplesChannel, SampleFormat format) throws IOException {
+        this(new ChannelSampleSource(samplesChannel), format, 0);
+    }
+
+    /**
+     * Defines a demodulator receiving the samples of the given format from the given source,
+     * of which the first power sample is at the given position, so that the timestamps of
+     * the messages are relative to the beginning of the whole sequence of samples
+     *
+     * @param source        (SampleSource): Given source
+     * @param format        (SampleFormat): Format of the samples
+     * @param firstPosition (long): Position of the first power sample of the source
+     * @throws IOException If there is an Input/Output error
+     * @throws IllegalArgumentException If the first position is strictly negative
+     */
+    AdsbDemodulator(SampleSource source, SampleFormat format, long firstPosition)
+            throws IOException {
+        this.pulseWeight = format.pulseWidth();
+        this.windowSize = format.windowSize();
+        this.sampleDurationNs = format.sampleDurationNs();
+        this.source = source;
+        this.powerWindow = new PowerWindow(source, windowSize, firstPosition, format);
         this.message = new byte[RawMessage.LENGTH];
     }
 
+    /**
+     * Skips the given number of power samples without looking for messages in them, as if a
+     * message ended just before the following one
+     *
+     * @param samples (int): Number of power samples to skip
+     * @throws IOException If there is an Input/Output error
+     * @throws IllegalArgumentException If the number of samples is strictly negative
+     */
+    void skip(int samples) throws IOException {
+        powerWindow.advanceBy(samples);
+    }
+
+    /**
+     * Changes the squelch level, expressed in multiples of the noise floor of the signal.
+     * The blocks of samples of which the peak power stays below that level are skipped
+     * without looking for preambles in them
+     *
+     * @param level (double): New squelch level, 0 disabling the squelch
+     * @throws IllegalArgumentException If the level is strictly negative
+     */
+    public void setSquelchLevel(double level) {
+        checkArgument(0 <= level);
+
+        this.squelchLevel = level;
+    }
+
+    /**
+     * Changes the corrector used to repair the messages of which the CRC24 isn't equal to 0.
+     * Its counters give the number of corrected and rejected messages
+     *
+     * @param corrector (CrcCorrector): New corrector, null disabling the correction
+     */
+    public void setCrcCorrector(CrcCorrector corrector) {
+        this.crcCorrector = corrector;
+    }
+
+    /**
+     * Determines the number of samples in which a preamble has been looked for
+     *
+     * @return (long): Number of scanned samples
+     */
+    public long scannedSamples() {
+        return scannedSamples;
+    }
+
+    /**
+     * Determines the number of samples skipped by the squelch
+     *
+     * @return (long): Number of skipped samples
+     */
+    public long skippedSamples() {
+        return skippedSamples;
+    }
+
+    /**
+     * Determines the number of candidate messages of which the decoding has been abandoned
+     * before their last byte, because their first byte is not the one of an ADS-B message
+     * or because one of their parity bytes differs from the CRC24 of their data bytes
+     *
+     * @return (long): Number of aborted candidates
+     */
+    public long abortedCandidates() {
+        return abortedCandidates;
+    }
+
+    /**
+     * Closes the socket given to the constructor, if any, and the selector waiting on it, or the
+     * stream read ahead and its reading thread. The streams and files given to the other
+     * constructors are left open, as they belong to their caller. Must not be called while a
+     * message is looked for
+     *
+     * @throws IOException If there is an Input/Output error
+     */
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
     /**
      * Gives the next ADS-B message of the stream
      *
@@ -37,47 +200,129 @@ public final class AdsbDemodulator {
      * @throws IOException If there is an Input/Output error
      */
     public RawMessage nextMessage() throws IOException {
-        int p = powerWindow.get(0)
-                + powerWindow.get(PULSE_WEIGHT * 2)
-                + powerWindow.get(PULSE_WEIGHT * 7)
-                + powerWindow.get(PULSE_WEIGHT * 9);
+        if (!findMessage()) return null;
+
+        RawMessage rawMessage = new RawMessage(
+                RawFrame.of(powerWindow.position() * sampleDurationNs, message));
+        powerWindow.advanceBy(windowSize);
+        return rawMessage;
+    }
+
+    /**
+     * Gives the next ADS-B message of the stream to the given sink, as its timestamp and two
+     * longs containing its bytes. Contrary to nextMessage(), nothing is allocated for the message
+     *
+     * @param sink (RawFrameSink): Sink receiving the message
+     * @return (boolean): True if a message has been given to the sink, false if there are no more
+     * @throws IOException If there is an Input/Output error
+     */
+    public boolean nextMessage(RawFrameSink sink) throws IOException {
+        if (!findMessage()) return false;
+
+        sink.accept(powerWindow.position() * sampleDurationNs,
+                Crc24.packHigh(message), Crc24.packLow(message));
+        powerWindow.advanceBy(windowSize);
+        return true;
+    }
+
+    /**
+     * Looks for the next valid ADS-B message of the stream, placing its bytes in the message
+     * array and leaving the window at its beginning
+     *
+     * @return (boolean): True if a message has been found, false if there are no more
+     * @throws IOException If there is an Input/Output error
+     */
+    private boolean findMessage() throws IOException {
+        int p = pulsesSum(0);
 
         int pMinus1 = 0;
 
         while (powerWindow.isFull()) {
-            int pPlus1 = powerWindow.get(1)
-                    + powerWindow.get(PULSE_WEIGHT * 2 +1)
-                    + powerWindow.get(PULSE_WEIGHT * 7 + 1)
-                    + powerWindow.get(PULSE_WEIGHT * 9 + 1);
-
-            int v = powerWindow.get(PULSE_WEIGHT)
-                    + powerWindow.get(PULSE_WEIGHT * 3)
-                    + powerWindow.get(PULSE_WEIGHT * 4)
-                    + powerWindow.get(PULSE_WEIGHT * 5)
-                    + powerWindow.get(PULSE_WEIGHT * 6)
-                    + powerWindow.get(PULSE_WEIGHT * 8);
+            int quietSamples = squelchLevel == 0 ? 0 : powerWindow.quietSamples(squelchLevel);
+            if (quietSamples != 0) {
+                skippedSamples += quietSamples;
+                powerWindow.advanceBy(quietSamples - 1);
+                pMinus1 = pulsesSum(0);
+                powerWindow.advance();
+                p = pulsesSum(0);
+                continue;
+            }
+            ++scannedSamples;
+
+            int pPlus1 = pulsesSum(1);
+
+            int[] samples = powerWindow.samples();
+            int start = powerWindow.offset();
+            int v = samples[start + pulseWeight]
+                    + samples[start + pulseWeight * 3]
+                    + samples[start + pulseWeight * 4]
+                    + samples[start + pulseWeight * 5]
+                    + samples[start + pulseWeight * 6]
+                    + samples[start + pulseWeight * 8];
 
             // We verify that the preamble start the beginning of a window
             if ((2 * v <= p) && (pPlus1 < p) && (pMinus1 < p)) {
-                message[0] = getByte(0);
-                if (RawMessage.size(message[0]) != 0) {
-                    for (int i = 1; i < message.length; i++) {
-                        message[i] = getByte(i);
-                    }
-                    RawMessage rawMessage = RawMessage
-                            .of(powerWindow.position() * CONVERT_TO_TIMESTAMP_NS, message);
-                    if (rawMessage != null) {
-                        powerWindow.advanceBy(WINDOW_SIZE);
-                        return rawMessage;
-                    }
-                }
+                int crc = decodeMessage();
+                if (crc == 0 || (crc != ABORTED && crcCorrector != null
+                        && crcCorrector.correct(message, crc)))
+                    return true;
             }
             powerWindow.advance();
 
             pMinus1 = p;
             p = pPlus1;
         }
-        return null;
+        return false;
+    }
+
+    /**
+     * Decodes the bytes of the message starting at the beginning of the window into the
+     * message array, computing its CRC24 along the way. The decoding stops after the first
+     * byte if it is not the one of an ADS-B message and, when no corrector is set, at the
+     * first parity byte differing from the CRC24 of the data bytes
+     *
+     * @return (int): CRC24 of the message, or ABORTED if its decoding has been abandoned
+     */
+    private int decodeMessage() {
+        message[0] = getByte(0);
+        if (RawMessage.size(message[0]) == 0) {
+            ++abortedCandidates;
+            return ABORTED;
+        }
+
+        int crc = CRC24.update(0, message[0]);
+        for (int i = 1; i < PARITY_INDEX; i++) {
+            message[i] = getByte(i);
+            crc = CRC24.update(crc, message[i]);
+        }
+
+        // The CRC24 of the data bytes is equal to the parity of a valid message
+        int parity = crc;
+        for (int i = PARITY_INDEX; i < message.length; i++) {
+            message[i] = getByte(i);
+            int parityShift = (message.length - 1 - i) * Byte.SIZE;
+            if (crcCorrector == null && (byte) (parity >>> parityShift) != message[i]) {
+                ++abortedCandidates;
+                return ABORTED;
+            }
+            crc = CRC24.update(crc, message[i]);
+        }
+        return crc;
+    }
+
+    /**
+     * Sums the power samples of the four pulses of a preamble starting at the given index
+     *
+     * @param i (int): Index of the beginning of the preamble in the window
+     * @return (int): Sum of the power of the pulses
+     */
+    private int pulsesSum(int i) {
+        int[] samples = powerWindow.samples();
+        int start = powerWindow.offset() + i;
+        return samples[start]
+                + samples[start + pulseWeight * 2]
+                + samples[start + pulseWeight * 7]
+                + samples[start + pulseWeight * 9];
     }
 
     /**
@@ -87,12 +332,13 @@ public final class AdsbDemodulator {
      * @return (byte): Byte at the given index
      */
     private byte getByte(int i) {
+        int[] samples = powerWindow.samples();
+        int bitSpacing = CST_PREAMBLE_THREE * pulseWeight;
+        int start = powerWindow.offset() + bitSpacing * i * Byte.SIZE;
         int byteInMessage = 0;
         for (int j = 0; j < Byte.SIZE; j++) {
-            int p1 = powerWindow
-                    .get(CST_PREAMBLE_ONE + CST_PREAMBLE_THREE * (i * Byte.SIZE + j));
-            int p2 = powerWindow
-                    .get(CST_PREAMBLE_TWO + CST_PREAMBLE_THREE * (i * Byte.SIZE + j));
+            int p1 = samples[start + CST_PREAMBLE_ONE * pulseWeight + bitSpacing * j];
+            int p2 = samples[start + CST_PREAMBLE_TWO * pulseWeight + bitSpacing * j];
             int bit = p1 < p2 ? 0 : 1;
 
             byteInMessage = (byteInMessage << 1) | bit;
@@ -0,0 +1,103 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Package-private and Final: Represents a source reading the raw bytes from a socket connected
+ * to an rtl_tcp-style server, in non-blocking mode and straight into a direct buffer
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+final class ChannelSampleSource implements SampleSource {
+    /** Header sent by rtl_tcp: "RTL0", then the tuner type and its number of gains*/
+    private static final byte[] HEADER_MAGIC = "RTL0".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_LENGTH = HEADER_MAGIC.length + 2 * Integer.BYTES;
+    private final SocketChannel channel;
+    private final Selector selector;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+    private byte[] pending;
+    private boolean ended = false;
+
+    /**
+     * Default ChannelSampleSource constructor.
+     * Defines a source reading the bytes of the given connected socket, skipping the header
+     * of rtl_tcp if the server sends one
+     *
+     * @param channel (SocketChannel): Socket connected to the server
+     * @throws IOException If there is an Input/Output error
+     */
+    ChannelSampleSource(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        this.selector = Selector.open();
+        channel.configureBlocking(false);
+        channel.register(selector, SelectionKey.OP_READ);
+
+        fill(buffer);
+        byte[] header = new byte[buffer.flip().remaining()];
+        buffer.get(header);
+        boolean hasHeader = header.length == HEADER_LENGTH
+                && Arrays.equals(header, 0, HEADER_MAGIC.length, HEADER_MAGIC, 0, HEADER_MAGIC.length);
+        pending = hasHeader ? new byte[0] : header;
+    }
+
+    @Override
+    public ByteBuffer read(int length) throws IOException {
+        if (buffer.capacity() < length)
+            buffer = ByteBuffer.allocateDirect(length).order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.clear().limit(length);
+        if (pending.length != 0) {
+            int pendingUsed = Math.min(pending.length, length);
+            buffer.put(pending, 0, pendingUsed);
+            pending = Arrays.copyOfRange(pending, pendingUsed, pending.length);
+        }
+
+        fill(buffer);
+        return buffer.flip();
+    }
+
+    /**
+     * Closes the socket and the selector waiting on it, the selector being closed even if
+     * closing the socket failed
+     *
+     * @throws IOException If there is an Input/Output error
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            selector.close();
+        }
+    }
+
+    /**
+     * Reads the bytes of the socket into the given buffer until it is full or the end of the
+     * stream is reached, waiting on the selector while no byte is available
+     *
+     * @param destination (ByteBuffer): Buffer in which the bytes are placed
+     * @throws IOException If there is an Input/Output error
+     * @throws InterruptedIOException If the thread is interrupted while waiting
+     */
+    private void fill(ByteBuffer destination) throws IOException {
+        while (!ended && destination.hasRemaining()) {
+            int bytesRead = channel.read(destination);
+            if (bytesRead < 0) {
+                ended = true;
+                selector.close();
+            } else if (bytesRead == 0) {
+                selector.select();
+                selector.selectedKeys().clear();
+                if (Thread.currentThread().isInterrupted()) throw new InterruptedIOException();
+            }
+        }
+    }
+}
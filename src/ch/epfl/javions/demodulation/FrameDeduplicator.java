@@ -0,0 +1,185 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.adsb.RawFrame;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import static ch.epfl.javions.Preconditions.checkArgument;
+
+/**
+ * Public and Final: Represents a filter of the frames received several times, typically by
+ * several receivers covering the same airspace. The frames of the last two windows of time
+ * are kept in two fixed-size open-addressing tables of primitive values, the oldest one being
+ * cleared and reused each time a new window begins, so that the filter allocates nothing.
+ * It is not thread-safe, and must be used by the thread consuming the merged frames
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+public final class FrameDeduplicator {
+    private static final int TABLE_BITS = 14, TABLE_SIZE = 1 << TABLE_BITS;
+    /** Maximum number of frames of a window, keeping the probe sequences short*/
+    private static final int MAX_FRAMES = TABLE_SIZE / 2;
+    /** High part of the empty slots, which no frame has since it only uses 48 bits*/
+    private static final long EMPTY = -1;
+    private static final long HASH_MULTIPLIER_1 = 0x9E3779B97F4A7C15L, HASH_MULTIPLIER_2 = 0xC2B2AE3D27D4EB4FL;
+
+    private final long windowNs;
+    private long[] currentHighs, currentLows, currentTimes;
+    private long[] previousHighs, previousLows, previousTimes;
+    private long currentBucket = Long.MIN_VALUE;
+    private int currentFrames = 0;
+    private final long[] received, duplicates;
+
+    /**
+     * Default FrameDeduplicator constructor.
+     * Defines a filter dropping the frames already received during the given window
+     *
+     * @param windowNs      (long): Duration of the window expressed in nanoseconds
+     * @param receiverCount (int): Number of receivers of which the duplicates are counted
+     * @throws IllegalArgumentException If the window or the number of receivers is not
+     * strictly positive
+     */
+    public FrameDeduplicator(long windowNs, int receiverCount) {
+        checkArgument(0 < windowNs);
+        checkArgument(0 < receiverCount);
+
+        this.windowNs = windowNs;
+        this.received = new long[receiverCount];
+        this.duplicates = new long[receiverCount];
+
+        currentHighs = emptyHighs();
+        currentLows = new long[TABLE_SIZE];
+        currentTimes = new long[TABLE_SIZE];
+        previousHighs = emptyHighs();
+        previousLows = new long[TABLE_SIZE];
+        previousTimes = new long[TABLE_SIZE];
+    }
+
+    /**
+     * Determines whether the given message has already been received during the window
+     * preceding its time of reception, and records it otherwise
+     *
+     * @param message (ReceivedMessage): Received message
+     * @return (boolean): True if the message is a duplicate and should be dropped
+     * @throws IndexOutOfBoundsException If the receiver of the message is not counted
+     */
+    public boolean isDuplicate(ReceivedMessage message) {
+        RawFrame frame = message.rawMessage().frame();
+
+        return isDuplicate(message.receiverId(), message.receptionTimeNs(), frame.high(), frame.low());
+    }
+
+    /**
+     * Determines whether the given frame has already been received during the window
+     * preceding the given time, and records it otherwise
+     *
+     * @param receiverId (int): Identity of the receiver of the frame
+     * @param timeNs     (long): Time of reception, on a clock shared by all the receivers
+     * @param high       (long): Bytes 0 to 5 of the frame, in the 48 LSBs
+     * @param low        (long): Bytes 6 to 13 of the frame
+     * @return (boolean): True if the frame is a duplicate and should be dropped
+     * @throws IndexOutOfBoundsException If the receiver is not counted
+     */
+    public boolean isDuplicate(int receiverId, long timeNs, long high, long low) {
+        Objects.checkIndex(receiverId, received.length);
+        ++received[receiverId];
+
+        long bucket = Math.floorDiv(timeNs, windowNs);
+        if (bucket != currentBucket) startBucket(bucket);
+
+        long oldestNs = timeNs - windowNs;
+        int currentSlot = find(currentHighs, currentLows, high, low);
+        int previousSlot = find(previousHighs, previousLows, high, low);
+        if ((currentHighs[currentSlot] != EMPTY && oldestNs <= currentTimes[currentSlot])
+                || (previousHighs[previousSlot] != EMPTY && oldestNs <= previousTimes[previousSlot])) {
+            ++duplicates[receiverId];
+            return true;
+        }
+
+        // The frame is not in the table of the current window, its slot is therefore empty
+        if (currentFrames == MAX_FRAMES) return false;
+        ++currentFrames;
+        currentHighs[currentSlot] = high;
+        currentLows[currentSlot] = low;
+        currentTimes[currentSlot] = timeNs;
+        return false;
+    }
+
+    /**
+     * Determines the number of frames of the given receiver received so far
+     *
+     * @param receiverId (int): Identity of the receiver
+     * @return (long): Number of frames received
+     * @throws IndexOutOfBoundsException If the receiver is not counted
+     */
+    public long received(int receiverId) {
+        return received[receiverId];
+    }
+
+    /**
+     * Determines the proportion of the frames of the given receiver which were duplicates
+     *
+     * @param receiverId (int): Identity of the receiver
+     * @return (double): Ratio of duplicates, between 0 and 1, or 0 if no frame was received
+     * @throws IndexOutOfBoundsException If the receiver is not counted
+     */
+    public double duplicateRatio(int receiverId) {
+        return received[receiverId] == 0
+                ? 0
+                : (double) duplicates[receiverId] / received[receiverId];
+    }
+
+    /**
+     * Begins the given window of time. The table of the current window becomes the previous
+     * one, unless the given window does not directly follow it, and the other one is cleared
+     *
+     * @param bucket (long): Index of the window
+     */
+    private void startBucket(long bucket) {
+        if (bucket == currentBucket + 1) {
+            long[] highs = previousHighs, lows = previousLows, times = previousTimes;
+            previousHighs = currentHighs;
+            previousLows = currentLows;
+            previousTimes = currentTimes;
+            currentHighs = highs;
+            currentLows = lows;
+            currentTimes = times;
+        } else {
+            Arrays.fill(previousHighs, EMPTY);
+        }
+        Arrays.fill(currentHighs, EMPTY);
+        currentFrames = 0;
+        currentBucket = bucket;
+    }
+
+    /**
+     * Finds the slot of the given table containing the given frame, or the empty slot
+     * where it should be inserted, by linear probing
+     *
+     * @param highs (long[]): High parts of the frames of the table
+     * @param lows  (long[]): Low parts of the frames of the table
+     * @param high  (long): High part of the frame
+     * @param low   (long): Low part of the frame
+     * @return (int): Slot of the frame
+     */
+    private static int find(long[] highs, long[] lows, long high, long low) {
+        int slot = (int) ((high * HASH_MULTIPLIER_1 ^ low * HASH_MULTIPLIER_2) >>> (Long.SIZE - TABLE_BITS));
+
+        while (highs[slot] != EMPTY && (highs[slot] != high || lows[slot] != low))
+            slot = (slot + 1) & (TABLE_SIZE - 1);
+
+        return slot;
+    }
+
+    /**
+     * Creates the high parts of an empty table
+     *
+     * @return (long[]): High parts, all empty
+     */
+    private static long[] emptyHighs() {
+        long[] highs = new long[TABLE_SIZE];
+        Arrays.fill(highs, EMPTY);
+        return highs;
+    }
+}
@@ -0,0 +1,79 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Objects;
+
+import static ch.epfl.javions.Preconditions.checkArgument;
+
+/**
+ * Package-private and Final: Represents a source reading the raw bytes straight from the
+ * memory-mapped regions of a recorded file, without copying them to the heap
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+final class MappedSampleSource implements SampleSource {
+    /** Size of the mapped regions, large enough to map a capture only a few times*/
+    private static final long REGION_SIZE = 1L << 30;
+    private final FileChannel channel;
+    private final long end;
+    private long position;
+    private ByteBuffer region = ByteBuffer.allocate(0);
+
+    /**
+     * Default MappedSampleSource constructor.
+     * Defines a source reading the whole file of the given channel
+     *
+     * @param channel (FileChannel): Channel of the file to read
+     * @throws IOException If there is an Input/Output error
+     * @throws NullPointerException If the channel is null
+     */
+    MappedSampleSource(FileChannel channel) throws IOException {
+        this(channel, 0, channel.size());
+    }
+
+    /**
+     * Defines a source reading the file of the given channel
+     * from the byte fromIndex (included) to the byte toIndex (excluded)
+     *
+     * @param channel   (FileChannel): Channel of the file to read
+     * @param fromIndex (long): Starting byte
+     * @param toIndex   (long): Ending byte
+     * @throws IOException If there is an Input/Output error
+     * @throws IllegalArgumentException If the range described by fromIndex and toIndex
+     * is not completely inside the file
+     */
+    MappedSampleSource(FileChannel channel, long fromIndex, long toIndex) throws IOException {
+        checkArgument(0 <= fromIndex && fromIndex <= toIndex && toIndex <= channel.size());
+
+        this.channel = Objects.requireNonNull(channel);
+        this.end = toIndex;
+        this.position = fromIndex;
+    }
+
+    @Override
+    public ByteBuffer read(int length) throws IOException {
+        region.position(region.limit()).limit(region.capacity());
+
+        if (region.remaining() < length && position < end) region = map();
+
+        int bytesRead = Math.min(length, region.remaining());
+        position += bytesRead;
+
+        return region.limit(region.position() + bytesRead);
+    }
+
+    /**
+     * Maps the region of the file starting at the current position
+     *
+     * @return (ByteBuffer): Mapped region, of which no byte has been read yet
+     * @throws IOException If there is an Input/Output error
+     */
+    private ByteBuffer map() throws IOException {
+        return channel
+                .map(FileChannel.MapMode.READ_ONLY, position, Math.min(REGION_SIZE, end - position))
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
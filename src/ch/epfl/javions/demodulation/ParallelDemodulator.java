@@ -0,0 +1,317 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.adsb.RawMessage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static ch.epfl.javions.Preconditions.checkArgument;
+
+/**
+ * Public and Final: Demodulates a recorded AirSpy capture in parallel, by splitting it
+ * into chunks that are demodulated independently on the workers of a fork-join pool,
+ * giving exactly the messages of the sequential demodulator
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+public final class ParallelDemodulator {
+    private static final long CHUNK_LENGTH = 1L << 24;
+    private static final SampleFormat FORMAT = SampleFormat.AIRSPY;
+    private static final int POWER_SAMPLE_BYTES = FORMAT.powerSampleBytes();
+    /** Alignment of the chunks on whole groups of I/Q samples, i.e. on whole power samples*/
+    private static final int CHUNK_ALIGNMENT = POWER_SAMPLE_BYTES;
+    private static final int WINDOW_SIZE = FORMAT.windowSize();
+    private static final long OVERLAP_LENGTH = (long) WINDOW_SIZE * POWER_SAMPLE_BYTES;
+    /** Number of the I/Q pairs preceding a power sample on which its power also depends*/
+    private static final int POWER_HISTORY = 3;
+    private static final long NO_SYNC = -1;
+
+    /**
+     * Default ParallelDemodulator constructor.
+     * Defined as private to prevent instantiations of the class
+     */
+    private ParallelDemodulator() {}
+
+    /**
+     * Demodulates the whole file of the given channel on the common fork-join pool
+     *
+     * @param samplesChannel (FileChannel): Channel of the recorded file
+     * @return (List<RawMessage>): Raw messages of the file, in timestamp order
+     * @throws IOException If there is an Input/Output error
+     */
+    public static List<RawMessage> demodulate(FileChannel samplesChannel) throws IOException {
+        return demodulate(samplesChannel, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Demodulates the whole file of the given channel on the given fork-join pool
+     *
+     * @param samplesChannel (FileChannel): Channel of the recorded file
+     * @param pool           (ForkJoinPool): Pool running the demodulation of the chunks
+     * @return (List<RawMessage>): Raw messages of the file, in timestamp order
+     * @throws IOException If there is an Input/Output error
+     * @throws NullPointerException If the channel or the pool is null
+     */
+    public static List<RawMessage> demodulate(FileChannel samplesChannel, ForkJoinPool pool)
+            throws IOException {
+        return demodulate(samplesChannel, pool, CHUNK_LENGTH);
+    }
+
+    /**
+     * Demodulates the whole file of the given channel on the given fork-join pool, in chunks
+     * of at most the given length. Each chunk is scanned from one window before its beginning to
+     * two windows after its end, so that the scans of two consecutive chunks overlap, the
+     * samples on which the power of the first one depends being read as well. When they
+     * are merged back, the messages of the later chunk are kept from the first position at
+     * which its scan is in the same state as the one of the earlier chunk, the sequential
+     * demodulator then following both. If there is none, the later chunk is scanned again from
+     * the position at which the earlier one resumed after its last message, until there is one
+     *
+     * @param samplesChannel (FileChannel): Channel of the recorded file
+     * @param pool           (ForkJoinPool): Pool running the demodulation of the chunks
+     * @param chunkLength    (long): Maximum length of a chunk, expressed in bytes
+     * @return (List<RawMessage>): Raw messages of the file, in timestamp order
+     * @throws IOException If there is an Input/Output error
+     * @throws NullPointerException If the channel or the pool is null
+     * @throws IllegalArgumentException If the chunks are shorter than a window
+     */
+    static List<RawMessage> demodulate(FileChannel samplesChannel, ForkJoinPool pool, long chunkLength)
+            throws IOException {
+        Objects.requireNonNull(samplesChannel);
+        checkArgument(OVERLAP_LENGTH <= chunkLength);
+        long size = samplesChannel.size();
+
+        try {
+            return pool.invoke(new ChunkTask(samplesChannel, size, chunkLength, 0, size)).messages();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Determines the position of the power sample at which the given message begins
+     *
+     * @param message (RawMessage): Message
+     * @return (long): Position of the message
+     */
+    private static long position(RawMessage message) {
+        return message.timeStampNs() / FORMAT.sampleDurationNs();
+    }
+
+    /**
+     * Determines the first position at which the two given scans are in the same state, i.e.
+     * both resume there after a message, or both scanned the previous position as well. The
+     * scans are then identical from that position on
+     *
+     * @param left  (Scan): Earlier scan
+     * @param right (Scan): Later scan
+     * @return (long): First position at which the scans are in the same state, or NO_SYNC if
+     * there is none among the positions scanned by both
+     */
+    private static long syncPosition(Scan left, Scan right) {
+        int i = 0, j = 0;
+        while (i < left.segments() && left.segmentEnd(i) < right.firstPosition()) ++i;
+
+        while (i < left.segments() && j < right.segments()) {
+            long leftStart = left.segmentStart(i), leftEnd = left.segmentEnd(i);
+            long rightStart = right.segmentStart(j), rightEnd = right.segmentEnd(j);
+            long from = Math.max(leftStart, rightStart), to = Math.min(leftEnd, rightEnd);
+
+            if (leftStart == rightStart && leftStart <= to) return leftStart;
+            if (from < to) return from + 1;
+
+            if (leftEnd < rightEnd) ++i;
+            else ++j;
+        }
+        return NO_SYNC;
+    }
+
+    /**
+     * Represents the scan of the power samples by a demodulator, starting from the given first
+     * position as it would after a message, and exact up to the given last position. It is made
+     * of segments of positions scanned one after the other, each one but the last ending with a
+     * message, and the next one beginning one window after it
+     *
+     * @param firstPosition (long): First position scanned
+     * @param messages      (List<RawMessage>): Messages found, in timestamp order
+     * @param lastPosition  (long): Last position of which the scan is known
+     */
+    private record Scan(long firstPosition, List<RawMessage> messages, long lastPosition) {
+        /**
+         * Determines the number of segments of the scan
+         *
+         * @return (int): Number of segments
+         */
+        private int segments() {
+            return messages.size() + 1;
+        }
+
+        /**
+         * Determines the first position of the segment of the given index
+         *
+         * @param i (int): Index of the segment
+         * @return (long): First position of the segment
+         */
+        private long segmentStart(int i) {
+            return i == 0 ? firstPosition : position(messages.get(i - 1)) + WINDOW_SIZE;
+        }
+
+        /**
+         * Determines the last position of the segment of the given index, the one of its message
+         *
+         * @param i (int): Index of the segment
+         * @return (long): Last position of the segment
+         */
+        private long segmentEnd(int i) {
+            return i == messages.size() ? lastPosition : position(messages.get(i));
+        }
+
+        /**
+         * Determines the index of the first message at or after the given position
+         *
+         * @param position (long): Position
+         * @return (int): Index of the first message from the position, or the number of messages
+         */
+        private int firstIndexFrom(long position) {
+            int i = messages.size();
+            while (0 < i && position <= position(messages.get(i - 1))) --i;
+            return i;
+        }
+    }
+
+    /**
+     * Represents the demodulation of the bytes of the file located
+     * between fromIndex (included) and toIndex (excluded)
+     */
+    @SuppressWarnings("serial")
+    private static final class ChunkTask extends RecursiveTask<Scan> {
+        private final FileChannel channel;
+        private final long size, chunkLength;
+        private final long fromIndex, toIndex;
+
+        private ChunkTask(FileChannel channel, long size, long chunkLength, long fromIndex, long toIndex) {
+            this.channel = channel;
+            this.size = size;
+            this.chunkLength = chunkLength;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        @Override
+        protected Scan compute() {
+            if (toIndex - fromIndex <= chunkLength) return demodulateChunk();
+
+            long middle = fromIndex + (toIndex - fromIndex) / 2 / CHUNK_ALIGNMENT * CHUNK_ALIGNMENT;
+            ChunkTask left = new ChunkTask(channel, size, chunkLength, fromIndex, middle);
+            ChunkTask right = new ChunkTask(channel, size, chunkLength, middle, toIndex);
+
+            right.fork();
+            Scan leftScan = left.compute();
+            return merge(leftScan, right.join());
+        }
+
+        /**
+         * Demodulates the chunk, extended by the overlap before it and twice the overlap after it
+         *
+         * @return (Scan): Scan of the chunk, with the timestamps of its messages relative to
+         * the beginning of the file
+         */
+        private Scan demodulateChunk() {
+            long firstPosition = Math.max(0, fromIndex - OVERLAP_LENGTH) / POWER_SAMPLE_BYTES;
+            long end = Math.min(size, toIndex + 2 * OVERLAP_LENGTH);
+            List<RawMessage> messages = new ArrayList<>();
+
+            try {
+                AdsbDemodulator demodulator = demodulatorFrom(firstPosition, end);
+                RawMessage message;
+                while ((message = demodulator.nextMessage()) != null) messages.add(message);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new Scan(firstPosition, messages, end / POWER_SAMPLE_BYTES - WINDOW_SIZE);
+        }
+
+        /**
+         * Appends to the messages of the earlier scan the ones of the later scan from the first
+         * position at which they are in the same state, or scans the later chunk again from the
+         * position at which the earlier scan resumed after its last message if there is none
+         *
+         * @param left  (Scan): Scan of the earlier chunk
+         * @param right (Scan): Scan of the later chunk
+         * @return (Scan): Scan of both chunks
+         */
+        private Scan merge(Scan left, Scan right) {
+            long sync = syncPosition(left, right);
+            if (sync == NO_SYNC) return rescan(left, right);
+
+            List<RawMessage> messages = new ArrayList<>(
+                    left.messages().subList(0, left.firstIndexFrom(sync)));
+            messages.addAll(right.messages().subList(right.firstIndexFrom(sync), right.messages().size()));
+            return new Scan(left.firstPosition(), messages, right.lastPosition());
+        }
+
+        /**
+         * Scans the later chunk again from the position at which the earlier scan resumed after
+         * its last message, until the first position at which it is in the same state as the
+         * later scan
+         *
+         * @param left  (Scan): Scan of the earlier chunk
+         * @param right (Scan): Scan of the later chunk
+         * @return (Scan): Scan of both chunks
+         */
+        private Scan rescan(Scan left, Scan right) {
+            List<RawMessage> messages = new ArrayList<>(left.messages());
+            long position = left.segmentStart(left.messages().size());
+            long end = Math.min(size, (right.lastPosition() + WINDOW_SIZE) * POWER_SAMPLE_BYTES);
+
+            // The earlier scan resumes after the end of the later one
+            if (right.lastPosition() < position)
+                return new Scan(left.firstPosition(), messages, right.lastPosition());
+
+            try {
+                AdsbDemodulator demodulator = demodulatorFrom(position, end);
+                while (true) {
+                    RawMessage message = demodulator.nextMessage();
+                    long segmentEnd = message == null ? right.lastPosition() : position(message);
+
+                    long sync = syncPosition(new Scan(position, List.of(), segmentEnd), right);
+                    if (sync != NO_SYNC) {
+                        messages.addAll(right.messages().subList(
+                                right.firstIndexFrom(sync), right.messages().size()));
+                        break;
+                    }
+                    if (message == null) break;
+
+                    messages.add(message);
+                    position = position(message) + WINDOW_SIZE;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new Scan(left.firstPosition(), messages, right.lastPosition());
+        }
+
+        /**
+         * Creates a demodulator of the file, looking for messages from the given position on,
+         * as it would after a message ending just before it
+         *
+         * @param position (long): Position of the first power sample scanned
+         * @param end      (long): Index following the last byte read
+         * @return (AdsbDemodulator): Demodulator
+         * @throws IOException If there is an Input/Output error
+         */
+        private AdsbDemodulator demodulatorFrom(long position, long end) throws IOException {
+            int history = (int) Math.min(position, POWER_HISTORY);
+            AdsbDemodulator demodulator = new AdsbDemodulator(new MappedSampleSource(
+                    channel, (position - history) * POWER_SAMPLE_BYTES, end), FORMAT, position - history);
+            demodulator.skip(history);
+            return demodulator;
+        }
+    }
+}
@@ -2,39 +2,101 @@ package ch.epfl.javions.demodulation;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import static ch.epfl.javions.Preconditions.checkArgument;
 
 /**
  * Public and Final: Represents a power calculator, i.e. an object capable of calculating
- * the power samples of the signal from the samples produced by a sample decoder
+ * the power samples of the signal from the samples produced by the AirSpy
  *
  * @author Pablo Robin Guerrero (356671)
  */
 public final class PowerComputer {
-    private static final int ODD_VALUE_INDEX_ZERO = 1, ODD_VALUE_INDEX_ONE = 3,
-            ODD_VALUE_INDEX_TWO = 5, ODD_VALUE_INDEX_THREE = 7;
-    private static final int EVEN_VALUE_INDEX_ZERO = 0, EVEN_VALUE_INDEX_ONE = 2,
-            EVEN_VALUE_INDEX_TWO = 4, EVEN_VALUE_INDEX_THREE = 6;
+    /** Powers of the RTL-SDR samples, indexed by the 16 bits of their I/Q pair*/
+    private static final int[] RTL_SDR_POWERS = buildRtlSdrPowers();
+    private static final int RTL_SDR_CENTER = 255;
+    /** Whether the Vector API is available, i.e. whether the application has been run with
+     * the jdk.incubator.vector module added*/
+    private static final boolean VECTOR_API =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
 
-    private final SamplesDecoder samplesDecoder;
-    private final short[] samplesComputer;
-    private final int[] lastSamples = new int[Byte.SIZE];
+    private final SampleSource source;
+    private final int batchSize;
+    private final SampleFormat format;
+    private int lastEven1, lastEven2, lastEven3, lastOdd1, lastOdd2, lastOdd3;
+    /** Vector kernel of the AirSpy powers, or null if they are calculated by the scalar loop*/
+    private final VectorPowerKernel vectorKernel;
 
     /**
      * Default PowerComputer Constructor.
-     * Defines the short array size to the double of the batch size
+     * Defines a power calculator reading the samples of the given stream
      *
      * @param stream    (InputStream): Given stream
      * @param batchSize (int): Size of the batches
      * @throws IllegalArgumentException If batch size is not a strictly positive multiple of 8
      */
     public PowerComputer(InputStream stream, int batchSize) {
+        this(new StreamSampleSource(stream), batchSize, SampleFormat.AIRSPY);
+    }
+
+    /**
+     * Defines a power calculator reading the samples straight from the
+     * memory-mapped file of the given channel
+     *
+     * @param channel   (FileChannel): Channel of the recorded file
+     * @param batchSize (int): Size of the batches
+     * @throws IOException If there is an Input/Output error
+     * @throws IllegalArgumentException If batch size is not a strictly positive multiple of 8
+     */
+    public PowerComputer(FileChannel channel, int batchSize) throws IOException {
+        this(new MappedSampleSource(channel), batchSize, SampleFormat.AIRSPY);
+    }
+
+    /**
+     * Defines a power calculator reading the samples of the given format from the given source
+     *
+     * @param source    (SampleSource): Given source
+     * @param batchSize (int): Size of the batches
+     * @param format    (SampleFormat): Format of the samples
+     * @throws IllegalArgumentException If batch size is not a strictly positive multiple of 8
+     */
+    PowerComputer(SampleSource source, int batchSize, SampleFormat format) {
+        this(source, batchSize, format, true);
+    }
+
+    /**
+     * Defines a power calculator reading the samples of the given format from the given source.
+     * The AirSpy powers are calculated by the vector kernel if it is allowed, the Vector API is
+     * available and the preferred species of the platform has enough lanes, and by the scalar
+     * loop otherwise
+     *
+     * @param source     (SampleSource): Given source
+     * @param batchSize  (int): Size of the batches
+     * @param format     (SampleFormat): Format of the samples
+     * @param vectorized (boolean): Whether the vector kernel may be used
+     * @throws IllegalArgumentException If batch size is not a strictly positive multiple of 8
+     */
+    PowerComputer(SampleSource source, int batchSize, SampleFormat format, boolean vectorized) {
         checkArgument(0 < batchSize);
         checkArgument( batchSize % Byte.SIZE == 0);
 
-        this.samplesComputer = new short[batchSize * Short.BYTES];
-        this.samplesDecoder = new SamplesDecoder(stream, samplesComputer.length);
+        this.source = source;
+        this.batchSize = batchSize;
+        this.format = format;
+        // The kernel class, which needs the Vector API, is only loaded once it is known to be there
+        this.vectorKernel = vectorized && format == SampleFormat.AIRSPY && VECTOR_API
+                && VectorPowerKernel.isSupported() ? new VectorPowerKernel(batchSize) : null;
+    }
+
+    /**
+     * Determines whether the AirSpy powers are calculated by the vector kernel
+     *
+     * @return (boolean): True if the vector kernel is used
+     */
+    boolean isVectorized() {
+        return vectorKernel != null;
     }
 
     /**
@@ -46,25 +108,108 @@ public final class PowerComputer {
      * @throws IllegalArgumentException If the given array size is not equal to the batch size
      */
     public int readBatch(int[] batch) throws IOException {
-        checkArgument(batch.length == samplesComputer.length / Short.BYTES);
+        checkArgument(batch.length == batchSize);
+
+        return readInto(batch);
+    }
+
+    /**
+     * Calculates the next batch of power samples and places it at the beginning of the given
+     * array, which may be longer than the batch size, its other elements being left untouched
+     *
+     * @param batch (int[]): Given array, at least as long as the batch size
+     * @return (int): Number of samples placed in the array
+     * @throws IOException If there is an Input/Output error
+     */
+    int readInto(int[] batch) throws IOException {
+        ByteBuffer bytes = source.read(batchSize * format.powerSampleBytes());
 
-        int samples = samplesDecoder.readBatch(samplesComputer);
-        int i = 0;
+        return switch (format) {
+            case AIRSPY -> vectorKernel != null
+                    ? vectorKernel.powers(bytes, batch)
+                    : airSpyPowers(bytes, batch);
+            case RTL_SDR -> rtlSdrPowers(bytes, batch);
+        };
+    }
 
-        while (i < samples) {
-            lastSamples[i % Byte.SIZE] = samplesComputer[i];
-            lastSamples[(i+1) % Byte.SIZE] = samplesComputer[i+1];
+    /**
+     * Calculates the power samples of the given AirSpy bytes. The raw bytes are turned into
+     * power samples in a single pass, keeping the three previous even and odd samples in
+     * local variables. Compared to the ring of the last eight samples, the sums only differ
+     * by their sign, which the squares cancel out
+     *
+     * @param bytes (ByteBuffer): Bytes read from the source
+     * @param batch (int[]): Array in which the power samples are placed
+     * @return (int): Number of samples placed in the array
+     */
+    private int airSpyPowers(ByteBuffer bytes, int[] batch) {
+        int samples = bytes.remaining() / format.powerSampleBytes();
+        int index = bytes.position();
+
+        int even1 = lastEven1, even2 = lastEven2, even3 = lastEven3;
+        int odd1 = lastOdd1, odd2 = lastOdd2, odd3 = lastOdd3;
+
+        for (int i = 0; i < samples; i++) {
+            int even0 = (short) (bytes.getShort(index) - SamplesDecoder.BIAS);
+            int odd0 = (short) (bytes.getShort(index + Short.BYTES) - SamplesDecoder.BIAS);
+            index += 2 * Short.BYTES;
 
-            int oddValue =
-                    lastSamples[ODD_VALUE_INDEX_ZERO] - lastSamples[ODD_VALUE_INDEX_ONE]
-                            + lastSamples[ODD_VALUE_INDEX_TWO] - lastSamples[ODD_VALUE_INDEX_THREE];
-            int evenValue = lastSamples[EVEN_VALUE_INDEX_ZERO] - lastSamples[EVEN_VALUE_INDEX_ONE]
-                    + lastSamples[EVEN_VALUE_INDEX_TWO] - lastSamples[EVEN_VALUE_INDEX_THREE];
+            int evenValue = even0 - even1 + even2 - even3;
+            int oddValue = odd0 - odd1 + odd2 - odd3;
+
+            batch[i] = oddValue * oddValue + evenValue * evenValue;
+
+            even3 = even2;
+            even2 = even1;
+            even1 = even0;
+            odd3 = odd2;
+            odd2 = odd1;
+            odd1 = odd0;
+        }
 
-            batch[i/Short.BYTES] = oddValue * oddValue + evenValue * evenValue;
+        lastEven1 = even1;
+        lastEven2 = even2;
+        lastEven3 = even3;
+        lastOdd1 = odd1;
+        lastOdd2 = odd2;
+        lastOdd3 = odd3;
+
+        return samples;
+    }
+
+    /**
+     * Calculates the power samples of the given RTL-SDR bytes, each I/Q pair giving one
+     * power sample found in the table of the powers
+     *
+     * @param bytes (ByteBuffer): Bytes read from the source
+     * @param batch (int[]): Array in which the power samples are placed
+     * @return (int): Number of samples placed in the array
+     */
+    private static int rtlSdrPowers(ByteBuffer bytes, int[] batch) {
+        int samples = bytes.remaining() / Short.BYTES;
+        int index = bytes.position();
+
+        for (int i = 0; i < samples; i++) {
+            batch[i] = RTL_SDR_POWERS[Short.toUnsignedInt(bytes.getShort(index))];
+            index += Short.BYTES;
+        }
+        return samples;
+    }
+
+    /**
+     * Builds the table of the powers of the 65536 I/Q pairs of the RTL-SDR. Its unsigned
+     * samples are centered on 127.5, so they are doubled to keep the powers integer
+     *
+     * @return (int[]): Powers indexed by the I/Q pairs
+     */
+    private static int[] buildRtlSdrPowers() {
+        int[] powers = new int[1 << Short.SIZE];
 
-            i += Short.BYTES;
+        for (int pair = 0; pair < powers.length; pair++) {
+            int i = 2 * (pair & 0xFF) - RTL_SDR_CENTER;
+            int q = 2 * (pair >>> Byte.SIZE) - RTL_SDR_CENTER;
+            powers[pair] = i * i + q * q;
         }
-        return samples / Short.BYTES;
+        return powers;
     }
 }
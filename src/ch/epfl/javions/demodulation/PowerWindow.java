@@ -2,6 +2,7 @@ package ch.epfl.javions.demodulation;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.util.Objects;
 
 import static ch.epfl.javions.Preconditions.checkArgument;
@@ -14,11 +15,19 @@ import static ch.epfl.javions.Preconditions.checkArgument;
  */
 public final class PowerWindow {
     private static final int MAX_SIZE =  1 << 16;
+    /** Size of the blocks of which the peak power is tracked, dividing the size of the batches*/
+    static final int BLOCK_SIZE = 1 << 8;
+    private static final int BLOCKS = MAX_SIZE / BLOCK_SIZE;
     private final PowerComputer powerComputer;
-    private int actualPosition = 0, absPosition = 0;
+    private int actualPosition = 0;
+    private long absPosition;
     private int[] first, second;
+    private int[] firstPeaks, secondPeaks;
+    private int firstNoiseFloor, secondNoiseFloor;
     private final int windowSize;
     private int samples;
+    /** Whether the second batch has been read, before the window reaches it or for the squelch*/
+    private boolean secondRead = false;
 
     /**
      * Default PowerWindow constructor.
@@ -31,15 +40,52 @@ public final class PowerWindow {
      * 0 (excluded) and 2^16 (included)
      */
     public PowerWindow(InputStream stream, int windowSize) throws IOException {
+        this(new StreamSampleSource(stream), windowSize, 0, SampleFormat.AIRSPY);
+    }
+
+    /**
+     * Defines a window over the power samples read straight from the
+     * memory-mapped file of the given channel
+     *
+     * @param channel    (FileChannel): Channel of the recorded file
+     * @param windowSize (int): Size of the window
+     * @throws IOException If there is an Input/Output error
+     * @throws IllegalArgumentException If the window size is not between
+     * 0 (excluded) and 2^16 (included)
+     */
+    public PowerWindow(FileChannel channel, int windowSize) throws IOException {
+        this(new MappedSampleSource(channel), windowSize, 0, SampleFormat.AIRSPY);
+    }
+
+    /**
+     * Defines a window over the power samples of the given format read from the given source,
+     * of which the first sample is at the given position of the whole sequence of power samples
+     *
+     * @param source        (SampleSource): Given source
+     * @param windowSize    (int): Size of the window
+     * @param firstPosition (long): Position of the first power sample of the source
+     * @param format        (SampleFormat): Format of the samples
+     * @throws IOException If there is an Input/Output error
+     * @throws IllegalArgumentException If the window size is not between
+     * 0 (excluded) and 2^16 (included), or if the first position is strictly negative
+     */
+    PowerWindow(SampleSource source, int windowSize, long firstPosition, SampleFormat format)
+            throws IOException {
         checkArgument(0 < windowSize && windowSize <= MAX_SIZE);
+        checkArgument(0 <= firstPosition);
 
         this.windowSize = windowSize;
-        this.powerComputer = new PowerComputer(stream, MAX_SIZE);
+        this.absPosition = firstPosition;
+        this.powerComputer = new PowerComputer(source, MAX_SIZE, format);
 
-        first = new int[MAX_SIZE];
-        second = new int[MAX_SIZE];
+        // Each batch is followed by a mirror of the beginning of the next one
+        first = new int[MAX_SIZE + windowSize];
+        second = new int[MAX_SIZE + windowSize];
+        firstPeaks = new int[BLOCKS];
+        secondPeaks = new int[BLOCKS];
 
-        samples = powerComputer.readBatch(first);
+        samples = powerComputer.readInto(first);
+        firstNoiseFloor = summarize(first, samples, firstPeaks);
     }
 
     /**
@@ -76,13 +122,26 @@ public final class PowerWindow {
      * 0 (included) and the size of the window (excluded)
      */
     public int get(int i) {
-        int j = actualPosition + Objects.checkIndex(i, windowSize);
+        return first[actualPosition + Objects.checkIndex(i, windowSize)];
+    }
 
-        if (j < MAX_SIZE) {
-            return first[j];
-        } else {
-            return second[j - MAX_SIZE];
-        }
+    /**
+     * Gives the array containing the power samples of the window contiguously, from the
+     * index given by offset() on. The array may change as soon as the window advances
+     *
+     * @return (int[]): Array containing the samples of the window
+     */
+    int[] samples() {
+        return first;
+    }
+
+    /**
+     * Determines the index of the first power sample of the window in the array given by samples()
+     *
+     * @return (int): Index of the first sample of the window
+     */
+    int offset() {
+        return actualPosition;
     }
 
     /**
@@ -94,18 +153,18 @@ public final class PowerWindow {
         ++actualPosition;
         ++absPosition;
         --samples;
-        if (actualPosition + windowSize == (MAX_SIZE + 1)) {
-            samples += powerComputer.readBatch(second);
-        } else if (actualPosition == MAX_SIZE) {
-            int[] temp = first;
-            first = second;
-            second = temp;
+        if (!secondRead && actualPosition + windowSize == (MAX_SIZE + 1)) {
+            readSecond();
+        }
+        if (actualPosition == MAX_SIZE) {
+            swapBatches();
             actualPosition = 0;
         }
     }
 
     /**
-     * Advances the window by the desired number of samples
+     * Advances the window by the desired number of samples.
+     * The window jumps directly to its new position, reading only the batches it crosses
      *
      * @param offset (int): Desired offset
      * @throws IOException If there is an Input/Output error
@@ -114,6 +173,109 @@ public final class PowerWindow {
     public void advanceBy(int offset) throws IOException {
         checkArgument(0 <= offset);
 
-        for (int i = 0; i < offset; i++) advance();
+        long newPosition = (long) actualPosition + offset;
+        absPosition += offset;
+        samples -= offset;
+
+        while (MAX_SIZE <= newPosition) {
+            if (!secondRead) readSecond();
+            swapBatches();
+            newPosition -= MAX_SIZE;
+        }
+        actualPosition = (int) newPosition;
+
+        if (!secondRead && MAX_SIZE < actualPosition + windowSize) readSecond();
+    }
+
+    /**
+     * Determines the number of samples that can be skipped from the current position, because
+     * none of the power samples of the current block and of the following one reaches the given
+     * level. The preambles starting in the current block are then all too weak to be considered.
+     * At the last block of a batch, the next batch is read ahead if the window is smaller than
+     * a block and has not reached it yet
+     *
+     * @param level (double): Squelch level, expressed in multiples of the noise floor
+     * @return (int): Number of samples up to the next block, or 0 if the window is not at the
+     * beginning of a block or if the block may contain a preamble
+     * @throws IOException If there is an Input/Output error
+     */
+    int quietSamples(double level) throws IOException {
+        if (actualPosition % BLOCK_SIZE != 0) return 0;
+
+        int block = actualPosition / BLOCK_SIZE;
+        int nextPeak;
+        if (block + 1 < BLOCKS) {
+            nextPeak = firstPeaks[block + 1];
+        } else {
+            if (!secondRead) readSecond();
+            nextPeak = secondPeaks[0];
+        }
+
+        double threshold = level * firstNoiseFloor;
+
+        return (firstPeaks[block] < threshold && nextPeak < threshold) ? BLOCK_SIZE : 0;
+    }
+
+    /**
+     * Reads the next batch of power samples in the second batch, and mirrors its beginning
+     * after the end of the first one, so that the window is always contiguous in the first one
+     *
+     * @throws IOException If there is an Input/Output error
+     */
+    private void readSecond() throws IOException {
+        int samplesRead = powerComputer.readInto(second);
+        System.arraycopy(second, 0, first, MAX_SIZE, windowSize);
+        secondNoiseFloor = summarize(second, samplesRead, secondPeaks);
+        samples += samplesRead;
+        secondRead = true;
+    }
+
+    /**
+     * Determines the peak power of each block of the given batch, and estimates its noise floor
+     * as the smallest mean power of its blocks, which in a batch of sparse traffic is
+     * a block containing only noise
+     *
+     * @param batch   (int[]): Batch of power samples
+     * @param samples (int): Number of samples actually read in the batch
+     * @param peaks   (int[]): Array in which the peak power of each block is placed
+     * @return (int): Noise floor of the batch, or 0 if it does not contain any complete block
+     */
+    private static int summarize(int[] batch, int samples, int[] peaks) {
+        long smallestSum = Long.MAX_VALUE;
+        int completeBlocks = samples / BLOCK_SIZE;
+
+        for (int block = 0; block < completeBlocks; block++) {
+            int peak = 0;
+            long sum = 0;
+            for (int i = block * BLOCK_SIZE; i < (block + 1) * BLOCK_SIZE; i++) {
+                peak = Math.max(peak, batch[i]);
+                sum += batch[i];
+            }
+            peaks[block] = peak;
+            smallestSum = Math.min(smallestSum, sum);
+        }
+
+        for (int block = completeBlocks; block < BLOCKS; block++) peaks[block] = Integer.MAX_VALUE;
+
+        return completeBlocks == 0 ? 0 : (int) (smallestSum / BLOCK_SIZE);
+    }
+
+    /**
+     * Swaps the first and the second batches of power samples, with their peaks and noise floors
+     */
+    private void swapBatches() {
+        int[] temp = first;
+        first = second;
+        second = temp;
+
+        int[] tempPeaks = firstPeaks;
+        firstPeaks = secondPeaks;
+        secondPeaks = tempPeaks;
+
+        int tempNoiseFloor = firstNoiseFloor;
+        firstNoiseFloor = secondNoiseFloor;
+        secondNoiseFloor = tempNoiseFloor;
+
+        secondRead = false;
     }
 }
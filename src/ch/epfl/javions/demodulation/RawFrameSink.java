@@ -0,0 +1,21 @@
+package ch.epfl.javions.demodulation;
+
+/**
+ * Public: Represents a receiver of the raw frames found by a demodulator, given as primitive
+ * values so that the demodulator does not have to allocate anything for each of them
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+public interface RawFrameSink {
+
+    /**
+     * Receives the frame of 112 bits with the given timestamp. The first 6 bytes of the frame
+     * are in the 48 least significant bits of high, and its last 8 bytes in low, the first
+     * byte of each part being its most significant one
+     *
+     * @param timeStampNs (long): Timestamp of the frame expressed in nanoseconds
+     * @param high        (long): Bytes 0 to 5 of the frame
+     * @param low         (long): Bytes 6 to 13 of the frame
+     */
+    void accept(long timeStampNs, long high, long low);
+}
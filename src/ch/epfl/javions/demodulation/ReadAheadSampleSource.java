@@ -0,0 +1,164 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static ch.epfl.javions.Preconditions.checkArgument;
+
+/**
+ * Package-private and Final: Represents a source of which the bytes of a stream are read ahead
+ * by a dedicated thread, so that reading the stream and demodulating its samples overlap.
+ * The batches are read into a small pool of buffers, recycled once they have been consumed
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+final class ReadAheadSampleSource implements SampleSource {
+    /** Marker of the end of the batches, put by the reading thread when it failed*/
+    private static final ByteBuffer FAILED = ByteBuffer.allocate(0);
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+    private final InputStream stream;
+    private final int bufferCount;
+    private final BlockingQueue<ByteBuffer> free, filled;
+    private ByteBuffer current = null;
+    private int length = 0;
+    private boolean ended = false;
+    private Thread readingThread = null;
+    private volatile boolean closed = false;
+    private volatile IOException failure = null;
+
+    /**
+     * Default ReadAheadSampleSource constructor.
+     * Defines a source reading the bytes of the given stream ahead into the given number of
+     * buffers. The reading thread is started by the first read, which fixes the length of
+     * all the batches
+     *
+     * @param stream      (InputStream): Given stream
+     * @param bufferCount (int): Number of buffers, at least 2
+     * @throws NullPointerException If the stream is null
+     * @throws IllegalArgumentException If there are fewer than 2 buffers
+     */
+    ReadAheadSampleSource(InputStream stream, int bufferCount) {
+        checkArgument(2 <= bufferCount);
+
+        this.stream = Objects.requireNonNull(stream);
+        this.bufferCount = bufferCount;
+        this.free = new ArrayBlockingQueue<>(bufferCount);
+        this.filled = new ArrayBlockingQueue<>(bufferCount + 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException If the length differs from the one of the first read
+     * @throws IOException If the source is closed or if the reading thread failed to read the
+     * stream, its exception being rethrown
+     */
+    @Override
+    public ByteBuffer read(int length) throws IOException {
+        if (closed) throw new IOException("Stream closed");
+        if (this.length == 0) start(length);
+        checkArgument(length == this.length);
+
+        if (current != null) {
+            free.add(current.clear());
+            current = null;
+        }
+        if (ended) return EMPTY;
+
+        ByteBuffer next;
+        try {
+            next = filled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+
+        if (next == FAILED) {
+            ended = true;
+            throw failure;
+        }
+        ended = next.limit() < length;
+        current = next;
+        return next;
+    }
+
+    /**
+     * Stops the reading thread, closes the stream and releases the buffers. The stream is closed
+     * as well since it is the only way to release a reading thread blocked in a read
+     *
+     * @throws IOException If there is an Input/Output error
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+
+        closed = true;
+        if (readingThread != null) readingThread.interrupt();
+        try {
+            stream.close();
+        } finally {
+            current = null;
+            free.clear();
+            filled.clear();
+        }
+    }
+
+    /**
+     * Allocates the buffers of the given length and starts the thread reading the stream
+     *
+     * @param length (int): Length of the batches
+     * @throws IllegalArgumentException If the length is not strictly positive
+     */
+    private void start(int length) {
+        checkArgument(0 < length);
+
+        this.length = length;
+        for (int i = 0; i < bufferCount; i++)
+            free.add(ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN));
+
+        readingThread = new Thread(this::readAll, "sample-read-ahead");
+        readingThread.setDaemon(true);
+        readingThread.start();
+    }
+
+    /**
+     * Fills the free buffers with the bytes of the stream until its end, the last buffer
+     * being the first one that is not completely filled. The thread stops at the end of the
+     * stream, at its first failure, which is passed to the consumer, or once the source is closed
+     */
+    private void readAll() {
+        try {
+            int bytesRead;
+            do {
+                ByteBuffer buffer = free.take();
+                bytesRead = stream.readNBytes(buffer.array(), 0, length);
+                filled.put(buffer.limit(bytesRead));
+            } while (bytesRead == length && !closed);
+        } catch (IOException e) {
+            fail(e);
+        } catch (InterruptedException e) {
+            fail(new InterruptedIOException());
+        } catch (RuntimeException e) {
+            // The consumer would otherwise wait forever for the next batch
+            fail(new IOException(e));
+        }
+    }
+
+    /**
+     * Passes the given failure to the consumer, unless the source is closed
+     *
+     * @param e (IOException): Failure of the reading thread
+     */
+    private void fail(IOException e) {
+        if (closed) return;
+
+        failure = e;
+        filled.add(FAILED);
+    }
+}
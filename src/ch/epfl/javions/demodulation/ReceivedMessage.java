@@ -0,0 +1,32 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.adsb.RawMessage;
+
+import java.util.Objects;
+
+import static ch.epfl.javions.Preconditions.checkArgument;
+
+/**
+ * Public: Represents a raw ADS-B message tagged with the identity of the receiver
+ * which demodulated it, its index in its group of receivers, and with its time of reception
+ * on the clock shared by the receivers of the group, whereas the time stamp of the raw message
+ * counts from the start of its own receiver
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+public record ReceivedMessage(int receiverId, RawMessage rawMessage, long receptionTimeNs) {
+
+    /**
+     * Compact constructor of ReceivedMessage
+     *
+     * @param receiverId      (int): Identity of the receiver
+     * @param rawMessage      (RawMessage): Raw message
+     * @param receptionTimeNs (long): Time of reception, on the clock shared by the receivers
+     * @throws IllegalArgumentException If the identity is strictly negative
+     * @throws NullPointerException If the raw message is null
+     */
+    public ReceivedMessage {
+        checkArgument(0 <= receiverId);
+        Objects.requireNonNull(rawMessage);
+    }
+}
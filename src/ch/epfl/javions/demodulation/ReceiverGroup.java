@@ -0,0 +1,121 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.adsb.RawMessage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ch.epfl.javions.Preconditions.checkArgument;
+
+/**
+ * Public and Final: Represents a group of receivers, each one demodulated on its own virtual
+ * thread, of which the messages are tagged with the identity of their receiver and merged
+ * into a single stream. As the receivers only share the queue of the merged stream, the
+ * throughput grows with their number up to the number of cores. Virtual threads require JDK 21.
+ * The time stamps of a receiver count its samples from its start, so that each message is also
+ * given its time of reception on the clock of System.nanoTime(). The offset between the two
+ * clocks is estimated as the smallest delay yet observed between the time stamp of a message and
+ * the moment it is demodulated, the latency of the reception only ever adding to it
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+public final class ReceiverGroup implements Closeable {
+    private static final int QUEUE_CAPACITY = 1 << 12;
+    /** Delay after which the end of the receivers is checked while no message arrives*/
+    private static final long END_CHECK_MS = 100;
+    private final BlockingQueue<ReceivedMessage> messages = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final List<Thread> receivers = new ArrayList<>();
+    private final AtomicInteger runningReceivers;
+    private volatile IOException failure = null;
+    private volatile boolean closed = false;
+
+    /**
+     * Default ReceiverGroup constructor.
+     * Starts demodulating each of the given receivers on its own virtual thread, its identity
+     * being its index in the list. Each demodulator is closed once its receiver has stopped
+     *
+     * @param demodulators (List<AdsbDemodulator>): Demodulators of the receivers
+     * @throws IllegalArgumentException If the list is empty
+     */
+    public ReceiverGroup(List<AdsbDemodulator> demodulators) {
+        checkArgument(!demodulators.isEmpty());
+
+        runningReceivers = new AtomicInteger(demodulators.size());
+        for (int id = 0; id < demodulators.size(); id++) {
+            int receiverId = id;
+            AdsbDemodulator demodulator = demodulators.get(id);
+            receivers.add(Thread.ofVirtual()
+                    .name("receiver-" + receiverId)
+                    .start(() -> receive(receiverId, demodulator)));
+        }
+    }
+
+    /**
+     * Gives the next message of the merged stream, waiting for one if none is available
+     *
+     * @return (ReceivedMessage): Next message, or null once all the receivers have stopped
+     * @throws IOException If one of the receivers stopped because of an Input/Output error,
+     * once the messages of the others have all been given
+     */
+    public ReceivedMessage nextMessage() throws IOException {
+        try {
+            while (true) {
+                ReceivedMessage message = messages.poll(END_CHECK_MS, TimeUnit.MILLISECONDS);
+                if (message != null) return message;
+
+                // A receiver stops after having put its last message
+                if (runningReceivers.get() == 0 && messages.isEmpty()) {
+                    if (failure != null) throw failure;
+                    return null;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    /**
+     * Stops the receivers, interrupting them while they wait for samples or for room in the
+     * merged stream, each one then closing its demodulator. The merged stream gives the
+     * messages already received, then null
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Thread receiver : receivers) receiver.interrupt();
+    }
+
+    /**
+     * Demodulates the messages of the given receiver until the end of its samples or until
+     * the group is closed, and then closes its demodulator
+     *
+     * @param receiverId  (int): Identity of the receiver
+     * @param demodulator (AdsbDemodulator): Demodulator of the receiver
+     */
+    private void receive(int receiverId, AdsbDemodulator demodulator) {
+        try (demodulator) {
+            RawMessage rawMessage;
+            long offsetNs = Long.MAX_VALUE;
+            while ((rawMessage = demodulator.nextMessage()) != null) {
+                long timeStampNs = rawMessage.timeStampNs();
+                offsetNs = Math.min(offsetNs, System.nanoTime() - timeStampNs);
+                messages.put(new ReceivedMessage(receiverId, rawMessage, offsetNs + timeStampNs));
+            }
+        } catch (IOException e) {
+            // The receivers stopped by close() are not considered as failed
+            if (!closed) failure = e;
+        } catch (InterruptedException e) {
+            if (!closed) failure = new InterruptedIOException();
+        } finally {
+            runningReceivers.decrementAndGet();
+        }
+    }
+}
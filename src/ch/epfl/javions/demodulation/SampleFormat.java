@@ -0,0 +1,65 @@
+package ch.epfl.javions.demodulation;
+
+/**
+ * Public: Enumeration of the formats of the samples produced by the supported radios,
+ * giving the constants of the demodulation that depend on their sample rate
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+public enum SampleFormat {
+    /** AirSpy: 12-bit signed little-endian samples at 20 MS/s, giving 10 power samples per µs*/
+    AIRSPY(2 * Short.BYTES, 100),
+    /** RTL-SDR: unsigned 8-bit I/Q pairs at 2 MS/s, each one giving a power sample*/
+    RTL_SDR(2 * Byte.BYTES, 500);
+
+    private static final int PULSE_DURATION_NS = 500, WINDOW_DURATION_NS = 120_000;
+    private final int powerSampleBytes;
+    private final int sampleDurationNs;
+
+    /**
+     * Default SampleFormat constructor.
+     *
+     * @param powerSampleBytes (int): Number of bytes making up one power sample
+     * @param sampleDurationNs (int): Duration of one power sample expressed in nanoseconds
+     */
+    SampleFormat(int powerSampleBytes, int sampleDurationNs) {
+        this.powerSampleBytes = powerSampleBytes;
+        this.sampleDurationNs = sampleDurationNs;
+    }
+
+    /**
+     * Determines the number of power samples making up one pulse of 0.5 µs
+     *
+     * @return (int): Width of a pulse
+     */
+    public int pulseWidth() {
+        return PULSE_DURATION_NS / sampleDurationNs;
+    }
+
+    /**
+     * Determines the duration of one power sample
+     *
+     * @return (int): Duration of a power sample expressed in nanoseconds
+     */
+    public int sampleDurationNs() {
+        return sampleDurationNs;
+    }
+
+    /**
+     * Determines the number of power samples covering the 120 µs of a message and its preamble
+     *
+     * @return (int): Size of the window of the demodulator
+     */
+    public int windowSize() {
+        return WINDOW_DURATION_NS / sampleDurationNs;
+    }
+
+    /**
+     * Determines the number of bytes making up one power sample
+     *
+     * @return (int): Number of bytes of a power sample
+     */
+    int powerSampleBytes() {
+        return powerSampleBytes;
+    }
+}
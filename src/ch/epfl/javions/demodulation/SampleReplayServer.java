@@ -0,0 +1,100 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Public and Final: Represents a local stand-in for an rtl_tcp server, replaying a recorded
+ * capture to each client connecting to it on the loopback interface, one client at a time
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+public final class SampleReplayServer implements Closeable {
+    /** Header of rtl_tcp: "RTL0", an R820T tuner and its 29 gains*/
+    private static final byte[] HEADER = {'R', 'T', 'L', '0', 0, 0, 0, 5, 0, 0, 0, 29};
+    private final FileChannel capture;
+    private final ServerSocketChannel server;
+
+    /**
+     * Default SampleReplayServer constructor.
+     * Opens the given capture and starts a daemon thread serving it on an ephemeral port
+     * of the loopback interface
+     *
+     * @param capturePath (Path): Path of the recorded capture
+     * @throws IOException If there is an Input/Output error
+     */
+    public SampleReplayServer(Path capturePath) throws IOException {
+        this.capture = FileChannel.open(capturePath, StandardOpenOption.READ);
+        this.server = ServerSocketChannel.open()
+                .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+
+        Thread servingThread = new Thread(this::serve, "sample-replay-server");
+        servingThread.setDaemon(true);
+        servingThread.start();
+    }
+
+    /**
+     * Determines the address on which the server accepts its clients
+     *
+     * @return (InetSocketAddress): Address of the server
+     * @throws IOException If there is an Input/Output error
+     */
+    public InetSocketAddress address() throws IOException {
+        return (InetSocketAddress) server.getLocalAddress();
+    }
+
+    /**
+     * Stops the server and closes the capture
+     *
+     * @throws IOException If there is an Input/Output error
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        capture.close();
+    }
+
+    /**
+     * Accepts the clients until the server is closed, replaying the capture to each one
+     */
+    private void serve() {
+        while (server.isOpen()) {
+            SocketChannel client;
+            try {
+                client = server.accept();
+            } catch (IOException e) {
+                return;
+            }
+
+            try (client) {
+                replay(client);
+            } catch (IOException e) {
+                // The client disconnected before the end of the capture, the next one is awaited
+            }
+        }
+    }
+
+    /**
+     * Sends the header of rtl_tcp then the whole capture to the given client, the bytes
+     * of the capture being transferred by the file channel without being copied in the heap
+     *
+     * @param client (SocketChannel): Connected client
+     * @throws IOException If there is an Input/Output error
+     */
+    private void replay(SocketChannel client) throws IOException {
+        ByteBuffer header = ByteBuffer.wrap(HEADER);
+        while (header.hasRemaining()) client.write(header);
+
+        long size = capture.size();
+        long position = 0;
+        while (position < size) position += capture.transferTo(position, size - position, client);
+    }
+}
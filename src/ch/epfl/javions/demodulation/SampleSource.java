@@ -0,0 +1,33 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Package-private: Defines a source of the raw bytes produced by the AirSpy,
+ * delivered batch by batch
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+interface SampleSource extends Closeable {
+    /**
+     * Reads the next batch of raw bytes.
+     * The returned buffer is little-endian, holds the bytes read between its position and its
+     * limit, and is only valid until the next call
+     *
+     * @param length (int): Maximum number of bytes to read
+     * @return (ByteBuffer): Bytes read, fewer than length only at the end of the source
+     * @throws IOException If there is an Input/Output error
+     */
+    ByteBuffer read(int length) throws IOException;
+
+    /**
+     * Releases the resources used by the source to read its bytes. By default nothing is
+     * released, the stream or the file read by the source being left to its caller
+     *
+     * @throws IOException If there is an Input/Output error
+     */
+    @Override
+    default void close() throws IOException {}
+}
@@ -1,7 +1,9 @@
 package ch.epfl.javions.demodulation;
 
 import java.io.*;
-import java.util.Objects;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
 import static ch.epfl.javions.Preconditions.checkArgument;
 
 /**
@@ -11,9 +13,9 @@ import static ch.epfl.javions.Preconditions.checkArgument;
  * @author Pablo Robin Guerrero (356671)
  */
 public final class SamplesDecoder {
-    private static final int BIAS =  1 << 11;
-    private final InputStream stream;
-    private final byte[] bytes;
+    static final int BIAS =  1 << 11;
+    private final SampleSource source;
+    private final int batchLength;
 
     /**
      * Default SamplesDecoder constructor.
@@ -25,10 +27,35 @@ public final class SamplesDecoder {
      * @throws NullPointerException If the stream is null
      */
     public SamplesDecoder(InputStream stream, int batchSize) {
+        this(new StreamSampleSource(stream), batchSize);
+    }
+
+    /**
+     * Defines a sample decoder reading the samples straight from the
+     * memory-mapped file of the given channel
+     *
+     * @param channel   (FileChannel): Channel of the recorded file
+     * @param batchSize (int): Size of the batches
+     * @throws IOException If there is an Input/Output error
+     * @throws IllegalArgumentException If batch size is not strictly positive
+     * @throws NullPointerException If the channel is null
+     */
+    public SamplesDecoder(FileChannel channel, int batchSize) throws IOException {
+        this(new MappedSampleSource(channel), batchSize);
+    }
+
+    /**
+     * Defines a sample decoder reading the bytes of the given source
+     *
+     * @param source    (SampleSource): Given source
+     * @param batchSize (int): Size of the batches
+     * @throws IllegalArgumentException If batch size is not strictly positive
+     */
+    SamplesDecoder(SampleSource source, int batchSize) {
         checkArgument(0 < batchSize);
 
-        this.stream = Objects.requireNonNull(stream);
-        bytes = new byte[Short.BYTES * batchSize];
+        this.source = source;
+        this.batchLength = Short.BYTES * batchSize;
     }
 
     /**
@@ -41,14 +68,14 @@ public final class SamplesDecoder {
      * equal to the length of a batch
      */
     public int readBatch(short[] batch) throws IOException {
-        checkArgument(bytes.length / Short.BYTES == batch.length);
+        checkArgument(batchLength / Short.BYTES == batch.length);
 
-        int samples = stream.readNBytes(bytes, 0, bytes.length);
+        ByteBuffer bytes = source.read(batchLength);
+        int samples = bytes.remaining() / Short.BYTES;
 
-        for (int i = 0; i < samples; i += Short.BYTES)
-            batch[i/Short.BYTES] =
-                    (short) ((Byte.toUnsignedInt(bytes[i]) | (bytes[i+1] << Byte.SIZE)) - BIAS);
+        for (int i = 0; i < samples; i++)
+            batch[i] = (short) (bytes.getShort() - BIAS);
 
-        return samples / Short.BYTES;
+        return samples;
     }
 }
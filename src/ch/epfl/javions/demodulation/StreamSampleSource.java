@@ -0,0 +1,42 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * Package-private and Final: Represents a source reading the raw bytes from a stream,
+ * for instance the standard input fed by the AirSpy
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+final class StreamSampleSource implements SampleSource {
+    private final InputStream stream;
+    private byte[] bytes = new byte[0];
+    private ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+    /**
+     * Default StreamSampleSource constructor.
+     * Defines a source reading the bytes of the given stream
+     *
+     * @param stream (InputStream): Given stream
+     * @throws NullPointerException If the stream is null
+     */
+    StreamSampleSource(InputStream stream) {
+        this.stream = Objects.requireNonNull(stream);
+    }
+
+    @Override
+    public ByteBuffer read(int length) throws IOException {
+        if (bytes.length < length) {
+            bytes = new byte[length];
+            buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        int bytesRead = stream.readNBytes(bytes, 0, length);
+
+        return buffer.clear().limit(bytesRead);
+    }
+}
@@ -0,0 +1,132 @@
+package ch.epfl.javions.demodulation;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Package-private and Final: Calculates the power samples of the AirSpy with the Vector API,
+ * one lane per power sample. Each I/Q pair is kept as the little-endian int in which the AirSpy
+ * gives it, its even sample in the low half and its odd sample in the high half, so that the
+ * samples are unpacked in the lanes without being deinterleaved first. The powers are the ones
+ * of the scalar computation, bit for bit, overflows included.
+ * This class is only loaded when the jdk.incubator.vector module is in the boot layer
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+final class VectorPowerKernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    /** Smallest number of lanes for which the kernel is faster than the scalar computation*/
+    private static final int MIN_LANES = 4;
+    /** Number of the I/Q pairs preceding a power sample on which its power also depends*/
+    private static final int HISTORY = 3;
+    private static final int HIGH_BIAS = SamplesDecoder.BIAS << Short.SIZE;
+    /** I/Q pair of two null samples, preceding the first one of the source*/
+    private static final int NULL_PAIR = SamplesDecoder.BIAS | HIGH_BIAS;
+
+    /** Last pairs of the previous batch, followed by the pairs of the current batch*/
+    private final int[] pairs;
+
+    /**
+     * Default VectorPowerKernel constructor.
+     * Defines a kernel calculating batches of at most the given size
+     *
+     * @param batchSize (int): Size of the batches
+     */
+    VectorPowerKernel(int batchSize) {
+        this.pairs = new int[HISTORY + batchSize];
+        for (int i = 0; i < HISTORY; i++) pairs[i] = NULL_PAIR;
+    }
+
+    /**
+     * Determines whether the preferred species of the platform has enough lanes for the
+     * kernel to be worth it
+     *
+     * @return (boolean): True if the kernel should be used
+     */
+    static boolean isSupported() {
+        return MIN_LANES <= SPECIES.length();
+    }
+
+    /**
+     * Calculates the power samples of the given AirSpy bytes
+     *
+     * @param bytes (ByteBuffer): Bytes read from the source, at most one batch
+     * @param batch (int[]): Array in which the power samples are placed
+     * @return (int): Number of samples placed in the array
+     */
+    int powers(ByteBuffer bytes, int[] batch) {
+        int samples = bytes.remaining() / Integer.BYTES;
+        int index = bytes.position();
+        for (int i = HISTORY; i < HISTORY + samples; i++) {
+            pairs[i] = bytes.getInt(index);
+            index += Integer.BYTES;
+        }
+
+        int bound = SPECIES.loopBound(samples);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            IntVector pair0 = IntVector.fromArray(SPECIES, pairs, i + 3);
+            IntVector pair1 = IntVector.fromArray(SPECIES, pairs, i + 2);
+            IntVector pair2 = IntVector.fromArray(SPECIES, pairs, i + 1);
+            IntVector pair3 = IntVector.fromArray(SPECIES, pairs, i);
+
+            IntVector evenValue = even(pair0).sub(even(pair1)).add(even(pair2)).sub(even(pair3));
+            IntVector oddValue = odd(pair0).sub(odd(pair1)).add(odd(pair2)).sub(odd(pair3));
+
+            oddValue.mul(oddValue).add(evenValue.mul(evenValue)).intoArray(batch, i);
+        }
+        for (; i < samples; i++) {
+            int evenValue = even(pairs[i + 3]) - even(pairs[i + 2]) + even(pairs[i + 1]) - even(pairs[i]);
+            int oddValue = odd(pairs[i + 3]) - odd(pairs[i + 2]) + odd(pairs[i + 1]) - odd(pairs[i]);
+
+            batch[i] = oddValue * oddValue + evenValue * evenValue;
+        }
+
+        System.arraycopy(pairs, samples, pairs, 0, HISTORY);
+        return samples;
+    }
+
+    /**
+     * Extracts the even samples of the given I/Q pairs, shifted back by the bias
+     *
+     * @param pairs (IntVector): I/Q pairs
+     * @return (IntVector): Signed even samples
+     */
+    private static IntVector even(IntVector pairs) {
+        return pairs.lanewise(VectorOperators.LSHL, Short.SIZE).sub(HIGH_BIAS)
+                .lanewise(VectorOperators.ASHR, Short.SIZE);
+    }
+
+    /**
+     * Extracts the odd samples of the given I/Q pairs, shifted back by the bias
+     *
+     * @param pairs (IntVector): I/Q pairs
+     * @return (IntVector): Signed odd samples
+     */
+    private static IntVector odd(IntVector pairs) {
+        return pairs.sub(HIGH_BIAS).lanewise(VectorOperators.ASHR, Short.SIZE);
+    }
+
+    /**
+     * Extracts the even sample of the given I/Q pair, shifted back by the bias
+     *
+     * @param pair (int): I/Q pair
+     * @return (int): Signed even sample
+     */
+    private static int even(int pair) {
+        return (short) (pair - SamplesDecoder.BIAS);
+    }
+
+    /**
+     * Extracts the odd sample of the given I/Q pair, shifted back by the bias
+     *
+     * @param pair (int): I/Q pair
+     * @return (int): Signed odd sample
+     */
+    private static int odd(int pair) {
+        return (short) ((pair >> Short.SIZE) - SamplesDecoder.BIAS);
+    }
+}
@@ -0,0 +1,154 @@
+package ch.epfl.javions.gui;
+
+import ch.epfl.javions.GeoPos;
+import ch.epfl.javions.adsb.AircraftStateSetter;
+import ch.epfl.javions.adsb.CallSign;
+import ch.epfl.javions.aircraft.AircraftData;
+import ch.epfl.javions.aircraft.IcaoAddress;
+import ch.epfl.javions.gui.ObservableAircraftState.AirbornePos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Package-private and Final: Represents the plain, non-observable state of an aircraft, updated
+ * away from the JavaFX thread. Its trajectory evolves exactly as the one of an observable state,
+ * and the points added or replaced since the last change taken are kept, so that an observable
+ * state can be brought up to date in bulk
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+final class AircraftState implements AircraftStateSetter {
+    private final IcaoAddress icaoAddress;
+    private final AircraftData aircraftData;
+    private long lastMessageTimeStampNs = 0;
+    private long lastTrajectoryTimeStampNs = -1;
+    private int category = 0;
+    private CallSign callSign = null;
+    private GeoPos position = null;
+    private double altitude = Double.NaN;
+    private double velocity = Double.NaN;
+    private double trackOrHeading = 0;
+    private AirbornePos lastPoint = null;
+    private AirbornePos replacedLastPoint = null;
+    private List<AirbornePos> newPoints = new ArrayList<>();
+
+    /**
+     * Represents the state of an aircraft once a change set is published, with the points of
+     * its trajectory added since the previous one
+     *
+     * @param icaoAddress            (IcaoAddress): ICAO Address of the aircraft
+     * @param aircraftData           (AircraftData): Fixed characteristics of the aircraft
+     * @param lastMessageTimeStampNs (long): Timestamp of the last message
+     * @param category               (int): Category of the aircraft
+     * @param callSign               (CallSign): Call sign of the aircraft
+     * @param position               (GeoPos): Position of the aircraft
+     * @param altitude               (double): Altitude of the aircraft
+     * @param velocity               (double): Velocity of the aircraft
+     * @param trackOrHeading         (double): Direction of the aircraft
+     * @param replacedLastPoint      (AirbornePos): New value of the last point of the trajectory
+     *                               published before, or null if it has not been replaced
+     * @param newPoints              (List<AirbornePos>): Points added to the trajectory
+     */
+    record Change(IcaoAddress icaoAddress, AircraftData aircraftData, long lastMessageTimeStampNs,
+                  int category, CallSign callSign, GeoPos position, double altitude,
+                  double velocity, double trackOrHeading, AirbornePos replacedLastPoint,
+                  List<AirbornePos> newPoints) {}
+
+    /**
+     * Default AircraftState constructor.
+     * Defines a plain state for the aircraft
+     *
+     * @param icaoAddress  (IcaoAddress): ICAO Address of the aircraft
+     * @param aircraftData (AircraftData): Fixed characteristics of the aircraft
+     * @throws NullPointerException If icaoAddress is null
+     */
+    AircraftState(IcaoAddress icaoAddress, AircraftData aircraftData) {
+        this.icaoAddress = Objects.requireNonNull(icaoAddress);
+        this.aircraftData = aircraftData;
+    }
+
+    /**
+     * Returns the Aircraft's timestamp of the last message
+     *
+     * @return (long): The last message's timestamp
+     */
+    long getLastMessageTimeStampNs() {
+        return lastMessageTimeStampNs;
+    }
+
+    @Override
+    public void setLastMessageTimeStampNs(long timeStampNs) {
+        lastMessageTimeStampNs = timeStampNs;
+    }
+
+    @Override
+    public void setCategory(int category) {
+        this.category = category;
+    }
+
+    @Override
+    public void setCallSign(CallSign callSign) {
+        this.callSign = callSign;
+    }
+
+    @Override
+    public void setPosition(GeoPos geoPos) {
+        position = geoPos;
+        updateTrajectory(geoPos, altitude);
+    }
+
+    @Override
+    public void setAltitude(double altitude) {
+        this.altitude = altitude;
+        updateTrajectory(position, altitude);
+    }
+
+    @Override
+    public void setVelocity(double velocity) {
+        this.velocity = velocity;
+    }
+
+    @Override
+    public void setTrackOrHeading(double trackOrHeading) {
+        this.trackOrHeading = trackOrHeading;
+    }
+
+    /**
+     * Gives the current state of the aircraft, with the changes of its trajectory since the
+     * last call, which are then forgotten
+     *
+     * @return (Change): Current state of the aircraft
+     */
+    Change takeChange() {
+        Change change = new Change(icaoAddress, aircraftData, lastMessageTimeStampNs, category,
+                callSign, position, altitude, velocity, trackOrHeading,
+                replacedLastPoint, newPoints);
+
+        replacedLastPoint = null;
+        newPoints = new ArrayList<>();
+        return change;
+    }
+
+    /**
+     * Updates the trajectory with the given points, as ObservableAircraftState does
+     *
+     * @param position (GeoPos): Position at Earth's surface
+     * @param altitude (double): Altitude of the aircraft
+     */
+    private void updateTrajectory(GeoPos position, double altitude) {
+        if (position != null && !Double.isNaN(altitude)) {
+            if (lastPoint == null || this.position.equals(lastPoint.position())) {
+                lastPoint = new AirbornePos(this.position, this.altitude);
+                newPoints.add(lastPoint);
+            } else if (lastMessageTimeStampNs == lastTrajectoryTimeStampNs) {
+                lastPoint = new AirbornePos(position, altitude);
+                if (newPoints.isEmpty()) replacedLastPoint = lastPoint;
+                else newPoints.set(newPoints.size() - 1, lastPoint);
+            }
+
+            lastTrajectoryTimeStampNs = lastMessageTimeStampNs;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package ch.epfl.javions.gui;
+
+import ch.epfl.javions.adsb.AircraftStateAccumulator;
+import ch.epfl.javions.adsb.Message;
+import ch.epfl.javions.aircraft.AircraftDatabase;
+import ch.epfl.javions.aircraft.IcaoAddress;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Package-private and Final: Keeps the plain states of a set of aircraft up-to-date on a worker
+ * thread, without any JavaFX object. The states changed and the aircraft removed since the last
+ * publication are collected, so that the JavaFX thread only takes them once per pulse, whatever
+ * the rate of the messages
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+final class AircraftStateEngine {
+    private static final long LIMIT_TIME_STAMP = Duration.ofMinutes(1).toNanos();
+    private final AircraftDatabase aircraftDatabase;
+    private final Map<IcaoAddress, AircraftStateAccumulator<AircraftState>> icaoAddressMap;
+    /** Guards the changes not published yet, shared with the JavaFX thread*/
+    private final Object changesLock = new Object();
+    private final Map<IcaoAddress, AircraftState> changedStates;
+    private List<IcaoAddress> removedAddresses;
+    private long lastTimeStampNs;
+
+    /**
+     * Represents the changes of the states since the previous publication
+     *
+     * @param changes          (List<AircraftState.Change>): States of the aircraft updated
+     * @param removedAddresses (List<IcaoAddress>): ICAO Addresses of the aircraft purged
+     */
+    record ChangeSet(List<AircraftState.Change> changes, List<IcaoAddress> removedAddresses) {}
+
+    /**
+     * Default AircraftStateEngine constructor.
+     * Keeps the plain states of a set of aircraft based on messages received from them
+     *
+     * @param aircraftDatabase (AircraftDatabase): Database containing the fixed characteristics of aircraft
+     * @throws NullPointerException If aircraftDatabase is null
+     */
+    AircraftStateEngine(AircraftDatabase aircraftDatabase) {
+        this.aircraftDatabase = Objects.requireNonNull(aircraftDatabase);
+        this.icaoAddressMap = new HashMap<>();
+        this.changedStates = new LinkedHashMap<>();
+        this.removedAddresses = new ArrayList<>();
+    }
+
+    /**
+     * Updates the aircraft's state basing on the given message. Must be called by the worker thread
+     *
+     * @param message (Message): Given message
+     * @throws IOException If there is an Input/Output error
+     */
+    void updateWithMessage(Message message) throws IOException {
+        IcaoAddress icaoAddress = message.icaoAddress();
+        AircraftStateAccumulator<AircraftState> stateAccumulator = icaoAddressMap.get(icaoAddress);
+
+        if (stateAccumulator == null) {
+            // The database is read before taking the lock, not to delay the publication
+            stateAccumulator = new AircraftStateAccumulator<>(
+                    new AircraftState(icaoAddress, aircraftDatabase.get(icaoAddress)));
+
+            icaoAddressMap.put(icaoAddress, stateAccumulator);
+        }
+
+        synchronized (changesLock) {
+            stateAccumulator.update(message);
+            changedStates.put(icaoAddress, stateAccumulator.stateSetter());
+        }
+
+        lastTimeStampNs = message.timeStampNs();
+    }
+
+    /**
+     * Removes the states of all the aircraft for which no message has been received in the
+     * minute preceding the reception of the last message passed to updateWithMessage.
+     * Must be called by the worker thread
+     */
+    void purge() {
+        synchronized (changesLock) {
+            Iterator<Map.Entry<IcaoAddress, AircraftStateAccumulator<AircraftState>>> entryIterator
+                    = icaoAddressMap.entrySet().iterator();
+            while (entryIterator.hasNext()) {
+                Map.Entry<IcaoAddress, AircraftStateAccumulator<AircraftState>> nextEntry
+                        = entryIterator.next();
+
+                long lastTs = nextEntry.getValue().stateSetter().getLastMessageTimeStampNs();
+
+                if (lastTs < lastTimeStampNs - LIMIT_TIME_STAMP) {
+                    entryIterator.remove();
+                    changedStates.remove(nextEntry.getKey());
+                    removedAddresses.add(nextEntry.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes the changes of the states since the previous publication. May be called by any
+     * thread, typically the JavaFX one once per pulse
+     *
+     * @return (ChangeSet): Changes since the previous publication
+     */
+    ChangeSet publish() {
+        synchronized (changesLock) {
+            List<AircraftState.Change> changes = new ArrayList<>(changedStates.size());
+            for (AircraftState state : changedStates.values())
+                changes.add(state.takeChange());
+
+            ChangeSet changeSet = new ChangeSet(changes, removedAddresses);
+            changedStates.clear();
+            removedAddresses = new ArrayList<>();
+            return changeSet;
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package ch.epfl.javions.gui;
 
-import ch.epfl.javions.adsb.AircraftStateAccumulator;
 import ch.epfl.javions.adsb.Message;
 import ch.epfl.javions.aircraft.AircraftDatabase;
 import ch.epfl.javions.aircraft.IcaoAddress;
@@ -8,24 +7,24 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableSet;
 
 import java.io.IOException;
-import java.time.Duration;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 /**
- * Public: Defines a manager for the aircraft states
+ * Public: Defines a manager for the aircraft states. The messages are accumulated into plain
+ * states by a worker thread, and the observable states are brought up to date in bulk by the
+ * JavaFX thread, once per pulse and within a time budget
  *
  * @author Pablo Robin Guerrero (356671)
  */
 public final class AircraftStateManager {
-    private static final long LIMIT_TIME_STAMP = Duration.ofMinutes(1).toNanos();
-    private final AircraftDatabase aircraftDatabase;
-    private final Map<IcaoAddress, AircraftStateAccumulator<ObservableAircraftState>> icaoAddressMap;
+    private final AircraftStateEngine engine;
+    private final Map<IcaoAddress, ObservableAircraftState> observableStates;
     private final ObservableSet<ObservableAircraftState> aircraftStates;
     private final ObservableSet<ObservableAircraftState> unmodifiableAircraftStates;
-    private long lastTimeStampNs;
+    private AircraftStateEngine.ChangeSet pendingChangeSet = null;
+    private int nextChange = 0;
 
     /**
      * Default AircraftStateManager constructor.
@@ -35,8 +34,8 @@ public final class AircraftStateManager {
      * @throws NullPointerException If aircraftDatabase is null
      */
     public AircraftStateManager(AircraftDatabase aircraftDatabase) {
-        this.aircraftDatabase = Objects.requireNonNull(aircraftDatabase);
-        this.icaoAddressMap = new HashMap<>();
+        this.engine = new AircraftStateEngine(aircraftDatabase);
+        this.observableStates = new HashMap<>();
         this.aircraftStates = FXCollections.observableSet();
         this.unmodifiableAircraftStates = FXCollections.unmodifiableObservableSet(aircraftStates);
     }
@@ -51,54 +50,62 @@ public final class AircraftStateManager {
     }
 
     /**
-     * Updates the aircraft's state basing on the given message
+     * Updates the aircraft's state basing on the given message. Must be called by a single
+     * worker thread, the observable states only changing once the changes are applied
      *
      * @param message (Message): Given message
      * @throws IOException If there is an Input/Output error
      */
     public void updateWithMessage(Message message) throws IOException {
-        IcaoAddress icaoAddress = message.icaoAddress();
-        AircraftStateAccumulator<ObservableAircraftState> stateAccumulator
-                = icaoAddressMap.get(icaoAddress);
-
-        if (stateAccumulator == null) {
-            stateAccumulator = new AircraftStateAccumulator<>(
-                            new ObservableAircraftState(icaoAddress, aircraftDatabase.get(icaoAddress)));
-
-            icaoAddressMap.put(message.icaoAddress(), stateAccumulator);
-        }
-
-        stateAccumulator.update(message);
-
-        ObservableAircraftState stateSetter = stateAccumulator.stateSetter();
-
-        if (stateSetter.getPosition() != null) {
-            aircraftStates.add(stateSetter);
-        }
-
-        lastTimeStampNs = message.timeStampNs();
+        engine.updateWithMessage(message);
     }
 
     /**
-     * Removes from the set of observable states all those corresponding to aircraft for which no
-     * message has been received in the minute preceding the reception of the last message passed
-     * to updateWithMessage
+     * Removes all the states corresponding to aircraft for which no message has been received
+     * in the minute preceding the reception of the last message passed to updateWithMessage.
+     * Must be called by the worker thread, the observable states only being removed once the
+     * changes are applied
      * */
     public void purge() {
-        Iterator<AircraftStateAccumulator<ObservableAircraftState>> stateAccumulatorIterator
-                = icaoAddressMap.values().iterator();
-        while (stateAccumulatorIterator.hasNext()) {
-            AircraftStateAccumulator<ObservableAircraftState> nextStateAccumulator
-                    = stateAccumulatorIterator.next();
-            ObservableAircraftState stateSetter = nextStateAccumulator.stateSetter();
+        engine.purge();
+    }
+
+    /**
+     * Applies in bulk to the observable states the changes accumulated by the worker thread,
+     * until the given budget is exhausted. The changes left are applied by the following calls,
+     * before any new change is taken, the worker thread meanwhile merging the changes of each
+     * aircraft. At least one change is applied per call. Must be called by the JavaFX thread,
+     * once per pulse
+     *
+     * @param budgetNs (long): Time allowed to apply the changes, expressed in nanoseconds
+     */
+    public void applyChanges(long budgetNs) {
+        long start = System.nanoTime();
+
+        if (pendingChangeSet == null) {
+            pendingChangeSet = engine.publish();
+            nextChange = 0;
+
+            for (IcaoAddress icaoAddress : pendingChangeSet.removedAddresses()) {
+                ObservableAircraftState removedState = observableStates.remove(icaoAddress);
+                if (removedState != null) aircraftStates.remove(removedState);
+            }
+        }
 
-            long lastTs = stateSetter.getLastMessageTimeStampNs();
+        List<AircraftState.Change> changes = pendingChangeSet.changes();
+        while (nextChange < changes.size()) {
+            AircraftState.Change change = changes.get(nextChange++);
+            ObservableAircraftState state = observableStates.computeIfAbsent(change.icaoAddress(),
+                    icaoAddress -> new ObservableAircraftState(icaoAddress, change.aircraftData()));
+            state.applyChange(change);
 
-            if (lastTs < lastTimeStampNs - LIMIT_TIME_STAMP) {
-                stateAccumulatorIterator.remove();
-                aircraftStates.remove(stateSetter);
+            if (state.getPosition() != null) {
+                aircraftStates.add(state);
             }
+
+            if (budgetNs <= System.nanoTime() - start) break;
         }
+
+        if (nextChange == changes.size()) pendingChangeSet = null;
     }
 }
-
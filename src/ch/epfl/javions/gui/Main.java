@@ -1,11 +1,16 @@
 package ch.epfl.javions.gui;
 
 import ch.epfl.javions.ByteString;
+import ch.epfl.javions.RingBuffer;
 import ch.epfl.javions.adsb.Message;
 import ch.epfl.javions.adsb.MessageParser;
 import ch.epfl.javions.adsb.RawMessage;
 import ch.epfl.javions.aircraft.AircraftDatabase;
 import ch.epfl.javions.demodulation.AdsbDemodulator;
+import ch.epfl.javions.demodulation.FrameDeduplicator;
+import ch.epfl.javions.demodulation.ReceivedMessage;
+import ch.epfl.javions.demodulation.ReceiverGroup;
+import ch.epfl.javions.demodulation.SampleFormat;
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.beans.binding.Bindings;
@@ -18,14 +23,20 @@ import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 
 import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URI;
 import java.net.URL;
+import java.nio.channels.SocketChannel;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Supplier;
 
 /**
@@ -39,11 +50,24 @@ public final class Main extends Application {
     private static final String DATABASE_PATH = "/aircraft.zip";
     private static final long PURGE_TIME = Duration.ofSeconds(1).toNanos();
     private static final long NANO_TO_MILLI = Duration.ofMillis(1).toNanos();
+    private static final long DUPLICATE_WINDOW = Duration.ofMillis(500).toNanos();
+    private static final long REPORT_PERIOD = Duration.ofSeconds(1).toNanos();
     private static final int MIN_WIDTH_WINDOW = 800;
     private static final int MIN_HEIGHT_WINDOW = 600;
     private static final int BEGINNING_ZOOM = 8;
     private static final int BEGINNING_X = 33_530;
     private static final int BEGINNING_Y = 23_070;
+    /** Name of the option giving the squelch level, e.g. --squelch=10, the squelch being off without it*/
+    private static final String SQUELCH_OPTION = "squelch", NO_SQUELCH = "0";
+    private static final int READ_AHEAD_BUFFERS = 4;
+    private static final String RECEIVER_SCHEME = "tcp://";
+    private static final int MESSAGES_CAPACITY = 1 << 14;
+    private static final long BATCH_BUDGET = Duration.ofMillis(4).toNanos();
+    /** Time allowed per pulse to apply the changes of the states, a pulse lasting 16 ms at 60 Hz*/
+    private static final long APPLY_BUDGET = Duration.ofMillis(4).toNanos();
+    /** Percentage of the batches of which the longest processing time is reported*/
+    private static final int BATCHES_PERCENTILE = 99;
+    private static final long IDLE_WAIT = Duration.ofMillis(1).toNanos();
     public static void main(String[] args) {launch(args);}
 
 
@@ -92,47 +116,72 @@ public final class Main extends Application {
 
 
         //Messages list creation
-        ConcurrentLinkedQueue<Message> messages = new ConcurrentLinkedQueue<>();
+        RingBuffer<Message> messages =
+                new RingBuffer<>(MESSAGES_CAPACITY, RingBuffer.OverflowPolicy.DROP_OLDEST);
+        MessageDrainer drainer = new MessageDrainer(messages, BATCH_BUDGET);
 
         //Message supplier creation
-        Supplier<Message> supplier = getParameters().getRaw().isEmpty()
-                ? radioSupplier()
-                : fileSupplier(getParameters().getRaw().get(0));
+        AtomicReference<String> receiversReport = new AtomicReference<>("");
+        List<String> arguments = getParameters().getUnnamed();
+        double squelchLevel = Double.parseDouble(
+                getParameters().getNamed().getOrDefault(SQUELCH_OPTION, NO_SQUELCH));
+        Supplier<Message> supplier = arguments.isEmpty()
+                ? radioSupplier(squelchLevel)
+                : arguments.get(0).startsWith(RECEIVER_SCHEME)
+                ? receiversSupplier(arguments, squelchLevel, receiversReport)
+                : fileSupplier(arguments.get(0));
 
 
         //Parallel thread (for the aircraft functionalities) creation
         Thread parallelThread = new Thread(() -> {
             while (true) {
+                drainer.awaitCapacity();
                 Message message = supplier.get();
-                if (message != null) messages.add(message);
+                if (message != null) messages.offer(message);
             }
         });
         parallelThread.setDaemon(true);
         parallelThread.start();
 
-        new AnimationTimer() {
-            long lastPurge = 0;
+        //State thread (for the accumulation of the aircraft states) creation
+        AtomicLong messagesCount = new AtomicLong();
+        Thread stateThread = new Thread(() -> {
+            long lastPurge = System.nanoTime();
+            try {
+                while (true) {
+                    long processed = drainer.drain(asm);
+                    messagesCount.addAndGet(processed);
 
-            //Status line controller messages count binding
-            private final LongProperty messagesCountProperty = slc.getMessageCountProperty();
-            @Override
-            public void handle(long now) {
-                try {
+                    long now = System.nanoTime();
                     if (PURGE_TIME <= now - lastPurge) {
                         asm.purge();
                         lastPurge = now;
                     }
 
-                    long messagesCount = 0;
+                    if (processed == 0) LockSupport.parkNanos(IDLE_WAIT);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        stateThread.setDaemon(true);
+        stateThread.start();
 
-                    while (!messages.isEmpty()) {
-                        ++messagesCount;
-                        asm.updateWithMessage(messages.remove());
-                    }
+        new AnimationTimer() {
+            //Status line controller messages count binding
+            private final LongProperty messagesCountProperty = slc.getMessageCountProperty();
+            private final StringProperty receiversReportProperty = slc.getReceiversReportProperty();
+            private final StringProperty batchesReportProperty = slc.getBatchesReportProperty();
+            private long lastReport = System.nanoTime();
+            @Override
+            public void handle(long now) {
+                asm.applyChanges(APPLY_BUDGET);
+                messagesCountProperty.set(messagesCount.get());
+                receiversReportProperty.set(receiversReport.get());
 
-                    messagesCountProperty.set(messagesCountProperty.get() + messagesCount);
-                } catch (IOException e) {
-                    throw new UncheckedIOException(e);
+                if (REPORT_PERIOD <= now - lastReport) {
+                    batchesReportProperty.set(batchesReport(drainer.histogram()));
+                    lastReport = now;
                 }
             }
         }.start();
@@ -172,11 +221,13 @@ public final class Main extends Application {
     /**
      * Method in charge of the radio messages supplier creation
      *
+     * @param squelchLevel (double): Squelch level of the demodulator, 0 if it is off
      * @return (Supplier<Message>): Radio supplier
      * @throws RuntimeException If there is a Runtime error
      */
-    private static Supplier<Message> radioSupplier() throws IOException {
-        AdsbDemodulator ad = new AdsbDemodulator(System.in);
+    private static Supplier<Message> radioSupplier(double squelchLevel) throws IOException {
+        AdsbDemodulator ad = new AdsbDemodulator(System.in, READ_AHEAD_BUFFERS);
+        ad.setSquelchLevel(squelchLevel);
         return () -> {
             try {
                 while (true) {
@@ -193,6 +244,92 @@ public final class Main extends Application {
         };
     }
 
+    /**
+     * Method in charge of the supplier of the messages of several RTL-SDR receivers, served by
+     * rtl_tcp at the given addresses of the form tcp://host:port. Each receiver is demodulated
+     * on its own virtual thread and their messages are merged, the frames received by several
+     * of them within the same window of reception time being kept only once. The proportion
+     * of duplicates of each receiver is reported once per period of reception time
+     *
+     * @param addresses    (List<String>): Addresses of the receivers
+     * @param squelchLevel (double): Squelch level of the demodulators, 0 if it is off
+     * @param report       (AtomicReference<String>): Reference in which the report is placed
+     * @return (Supplier<Message>): Receivers supplier
+     * @throws IOException If there is an Input/Output error
+     * @throws RuntimeException If there is a Runtime error
+     */
+    private static Supplier<Message> receiversSupplier(List<String> addresses, double squelchLevel,
+                                                       AtomicReference<String> report)
+            throws IOException {
+        List<AdsbDemodulator> demodulators = new ArrayList<>();
+        for (String address : addresses) {
+            URI uri = URI.create(address);
+            SocketChannel channel =
+                    SocketChannel.open(new InetSocketAddress(uri.getHost(), uri.getPort()));
+            AdsbDemodulator ad = new AdsbDemodulator(channel, SampleFormat.RTL_SDR);
+            ad.setSquelchLevel(squelchLevel);
+            demodulators.add(ad);
+        }
+
+        ReceiverGroup receivers = new ReceiverGroup(demodulators);
+        FrameDeduplicator deduplicator = new FrameDeduplicator(DUPLICATE_WINDOW, demodulators.size());
+        long[] lastReportNs = {System.nanoTime()};
+        return () -> {
+            try {
+                ReceivedMessage m;
+                while ((m = receivers.nextMessage()) != null) {
+                    boolean duplicate = deduplicator.isDuplicate(m);
+                    if (REPORT_PERIOD <= m.receptionTimeNs() - lastReportNs[0]) {
+                        report.set(duplicatesReport(deduplicator, demodulators.size()));
+                        lastReportNs[0] = m.receptionTimeNs();
+                    }
+                    if (!duplicate) return MessageParser.parse(m.rawMessage());
+                }
+                report.set(duplicatesReport(deduplicator, demodulators.size()));
+                return null;
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    /**
+     * Describes the processing time under which the given percentage of the batches of messages
+     * were processed, from the histogram of the drainer
+     *
+     * @param histogram (long[]): Histogram of the processing time of the batches
+     * @return (String): Report of the batches, empty if none was processed
+     */
+    private static String batchesReport(long[] histogram) {
+        long total = 0;
+        for (long count : histogram) total += count;
+        if (total == 0) return "";
+
+        int bucket = 0;
+        long count = histogram[0];
+        while (100 * count < BATCHES_PERCENTILE * total) count += histogram[++bucket];
+
+        // The bucket i counts the batches processed in less than 2^i µs, the last one the others
+        return bucket == MessageDrainer.HISTOGRAM_BUCKETS - 1
+                ? String.format("Lots (%d %%) :  ≥ %d µs", BATCHES_PERCENTILE, 1L << (bucket - 1))
+                : String.format("Lots (%d %%) :  < %d µs", BATCHES_PERCENTILE, 1L << bucket);
+    }
+
+    /**
+     * Describes the proportion of the frames of each receiver which were already received
+     * by another one
+     *
+     * @param deduplicator  (FrameDeduplicator): Filter of the duplicates
+     * @param receiverCount (int): Number of receivers
+     * @return (String): Report of the receivers
+     */
+    private static String duplicatesReport(FrameDeduplicator deduplicator, int receiverCount) {
+        StringJoiner report = new StringJoiner(" | ", "Doublons :  ", "");
+        for (int id = 0; id < receiverCount; id++)
+            report.add(String.format("%d : %.0f %%", id, 100 * deduplicator.duplicateRatio(id)));
+        return report.toString();
+    }
+
     /**
      * Method in charge of the file messages supplier creation
      *
@@ -0,0 +1,124 @@
+package ch.epfl.javions.gui;
+
+import ch.epfl.javions.RingBuffer;
+import ch.epfl.javions.adsb.Message;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import static ch.epfl.javions.Preconditions.checkArgument;
+
+/**
+ * Public and Final: Drains the messages passed to the thread accumulating the aircraft states
+ * within a time budget per batch, the remaining ones being carried to the next batch. When the
+ * backlog grows beyond half the capacity of the ring buffer, the producer is asked to wait
+ * until it falls below a quarter of it. The processing time of each batch is recorded in a
+ * histogram, written by the worker thread and which may be read by any thread
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+public final class MessageDrainer {
+    /** Number of buckets of the histogram, the last one collecting all the longer batches*/
+    public static final int HISTOGRAM_BUCKETS = 16;
+    private static final long MICRO_TO_NANO = Duration.ofMillis(1).toNanos() / 1_000;
+    private static final long WAIT_NS = Duration.ofMillis(1).toNanos();
+    private final RingBuffer<Message> messages;
+    private final long budgetNs;
+    private final int highWater, lowWater;
+    private final AtomicLongArray histogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+    private volatile boolean congested = false;
+
+    /**
+     * Default MessageDrainer constructor.
+     * Defines a drainer of the given ring buffer, processing its messages within the given
+     * budget per batch
+     *
+     * @param messages (RingBuffer<Message>): Ring buffer of the messages
+     * @param budgetNs (long): Processing time allowed per batch, expressed in nanoseconds
+     * @throws NullPointerException If the ring buffer is null
+     * @throws IllegalArgumentException If the budget is not strictly positive
+     */
+    public MessageDrainer(RingBuffer<Message> messages, long budgetNs) {
+        checkArgument(0 < budgetNs);
+
+        this.messages = Objects.requireNonNull(messages);
+        this.budgetNs = budgetNs;
+        this.highWater = messages.capacity() / 2;
+        this.lowWater = messages.capacity() / 4;
+    }
+
+    /**
+     * Updates the given manager with the waiting messages until the budget is exhausted.
+     * Must be called by the worker thread accumulating the states, once per batch
+     *
+     * @param manager (AircraftStateManager): Manager of the aircraft states
+     * @return (long): Number of messages processed
+     * @throws IOException If there is an Input/Output error
+     */
+    public long drain(AircraftStateManager manager) throws IOException {
+        long start = System.nanoTime();
+        long deadline = start + budgetNs;
+        long processed = 0;
+
+        Message message;
+        while (System.nanoTime() < deadline && (message = messages.poll()) != null) {
+            manager.updateWithMessage(message);
+            ++processed;
+        }
+
+        long elapsedNs = System.nanoTime() - start;
+        histogram.incrementAndGet(bucket(elapsedNs));
+
+        int backlog = messages.size();
+        if (highWater < backlog) congested = true;
+        else if (backlog < lowWater) congested = false;
+
+        return processed;
+    }
+
+    /**
+     * Waits while the backlog of messages is too large. Must be called by the producer
+     * before offering a message
+     */
+    public void awaitCapacity() {
+        while (congested && !Thread.currentThread().isInterrupted())
+            LockSupport.parkNanos(WAIT_NS);
+    }
+
+    /**
+     * Determines whether the producer is currently asked to wait
+     *
+     * @return (boolean): True if the backlog of messages is too large
+     */
+    public boolean isCongested() {
+        return congested;
+    }
+
+    /**
+     * Gives the histogram of the processing time of the batches so far. The bucket i counts
+     * the batches of which the processing took between 2^(i-1) (or 0) and 2^i µs (excluded),
+     * the last bucket counting all the longer ones. May be called by any thread, each bucket
+     * being read atomically
+     *
+     * @return (long[]): Copy of the histogram
+     */
+    public long[] histogram() {
+        long[] copy = new long[HISTOGRAM_BUCKETS];
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) copy[i] = histogram.get(i);
+        return copy;
+    }
+
+    /**
+     * Determines the bucket of the histogram of the given processing time
+     *
+     * @param elapsedNs (long): Processing time of a batch, expressed in nanoseconds
+     * @return (int): Bucket of the histogram
+     */
+    private static int bucket(long elapsedNs) {
+        long elapsedUs = elapsedNs / MICRO_TO_NANO;
+        return Math.min(HISTOGRAM_BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(elapsedUs));
+    }
+}
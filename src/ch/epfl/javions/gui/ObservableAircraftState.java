@@ -278,6 +278,27 @@ public final class ObservableAircraftState implements AircraftStateSetter {
         trackOrHeadingProperty.set(trackOrHeading);
     }
 
+    /**
+     * Brings the state up to date in bulk with the given change of the plain state of the
+     * aircraft, each property being set once and the trajectory being extended by its new points
+     *
+     * @param change (AircraftState.Change): Change of the plain state of the aircraft
+     */
+    void applyChange(AircraftState.Change change) {
+        lastMessageTimeStampNsProperty.set(change.lastMessageTimeStampNs());
+        categoryProperty.set(change.category());
+        callSignProperty.set(change.callSign());
+        positionProperty.set(change.position());
+        altitudeProperty.set(change.altitude());
+        velocityProperty.set(change.velocity());
+        trackOrHeadingProperty.set(change.trackOrHeading());
+
+        if (change.replacedLastPoint() != null)
+            trajectoryList.set(trajectoryList.size() - 1, change.replacedLastPoint());
+        if (!change.newPoints().isEmpty())
+            trajectoryList.addAll(change.newPoints());
+    }
+
     /**
      * Updates the trajectory with the given points
      *
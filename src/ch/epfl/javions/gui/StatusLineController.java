@@ -14,6 +14,8 @@ import javafx.scene.text.Text;
 public final class StatusLineController {
     private final IntegerProperty aircraftCountProperty;
     private final LongProperty messageCountProperty;
+    private final StringProperty batchesReportProperty;
+    private final StringProperty receiversReportProperty;
     private final BorderPane statusPane;
 
     /**
@@ -23,6 +25,8 @@ public final class StatusLineController {
     public StatusLineController() {
         this.aircraftCountProperty = new SimpleIntegerProperty(0);
         this.messageCountProperty = new SimpleLongProperty(0);
+        this.batchesReportProperty = new SimpleStringProperty("");
+        this.receiversReportProperty = new SimpleStringProperty("");
 
         Text leftText = new Text();
         leftText.textProperty().bind(Bindings.format("Aéronefs visibles :  %d", aircraftCountProperty));
@@ -30,7 +34,11 @@ public final class StatusLineController {
         Text rightText = new Text();
         rightText.textProperty().bind(Bindings.format("Messages reçus :  %d", messageCountProperty));
 
-        this.statusPane = new BorderPane(null, null, rightText, null, leftText);
+        Text centerText = new Text();
+        centerText.textProperty().bind(
+                Bindings.concat(batchesReportProperty, "   ", receiversReportProperty));
+
+        this.statusPane = new BorderPane(centerText, null, rightText, null, leftText);
         this.statusPane.getStylesheets().add("status.css");
     }
 
@@ -55,4 +63,20 @@ public final class StatusLineController {
      * @return (LongProperty): Aircraft's message count property
      */
     public LongProperty getMessageCountProperty() {return messageCountProperty;}
+
+    /**
+     * Returns the modifiable property containing the report of the processing time of the
+     * batches of messages
+     *
+     * @return (StringProperty): Batches' report property
+     */
+    public StringProperty getBatchesReportProperty() {return batchesReportProperty;}
+
+    /**
+     * Returns the modifiable property containing the report of the receivers, empty when
+     * the messages do not come from several receivers
+     *
+     * @return (StringProperty): Receivers' report property
+     */
+    public StringProperty getReceiversReportProperty() {return receiversReportProperty;}
 }
@@ -0,0 +1,66 @@
+package ch.epfl.javions;
+
+import java.util.Random;
+
+/**
+ * Package-private and Final: Benchmark of the CRC24 of raw messages, comparing the reference
+ * crc(byte[]), which processes one byte per table lookup and then flushes, with the slice-by-8
+ * crc(byte[], int, int) and with crc(long, long) on the message packed into two longs. All of
+ * them must give the same CRC24 for each message. The best of several rounds is reported
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+final class Crc24Benchmark {
+    private static final int MESSAGES = 1 << 16, MESSAGE_BYTES = 14;
+    private static final int ROUNDS = 20;
+    private static final Crc24 CRC24 = new Crc24(Crc24.GENERATOR);
+
+    /**
+     * Default Crc24Benchmark constructor.
+     * Not instantiable
+     */
+    private Crc24Benchmark() {}
+
+    /**
+     * Runs the benchmark
+     *
+     * @param args (String[]): Ignored
+     * @throws AssertionError If the variants do not give the same CRC24 for a message
+     */
+    public static void main(String[] args) {
+        Random random = new Random(0);
+        byte[][] messages = new byte[MESSAGES][MESSAGE_BYTES];
+        long[] highs = new long[MESSAGES], lows = new long[MESSAGES];
+        for (int i = 0; i < MESSAGES; i++) {
+            random.nextBytes(messages[i]);
+            highs[i] = Crc24.packHigh(messages[i]);
+            lows[i] = Crc24.packLow(messages[i]);
+
+            int expected = CRC24.crc(messages[i]);
+            if (CRC24.crc(messages[i], 0, MESSAGE_BYTES) != expected
+                    || CRC24.crc(highs[i], lows[i]) != expected)
+                throw new AssertionError("message " + i + " has different CRC24s");
+        }
+
+        long[] bestNs = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+        long checksum = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (byte[] message : messages) checksum += CRC24.crc(message);
+            bestNs[0] = Math.min(bestNs[0], System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (byte[] message : messages) checksum += CRC24.crc(message, 0, MESSAGE_BYTES);
+            bestNs[1] = Math.min(bestNs[1], System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < MESSAGES; i++) checksum += CRC24.crc(highs[i], lows[i]);
+            bestNs[2] = Math.min(bestNs[2], System.nanoTime() - start);
+        }
+
+        System.out.printf("%d messages of %d bytes: crc(byte[]) %.1f ns, crc(byte[], int, int) %.1f ns, "
+                        + "crc(long, long) %.1f ns per message (checksum %d)%n", MESSAGES, MESSAGE_BYTES,
+                (double) bestNs[0] / MESSAGES, (double) bestNs[1] / MESSAGES, (double) bestNs[2] / MESSAGES,
+                checksum);
+    }
+}
@@ -0,0 +1,52 @@
+package ch.epfl.javions.adsb;
+
+import java.util.Random;
+
+/**
+ * Package-private and Final: Checks exhaustively that the altitude table of the position
+ * messages gives, for each of the 4096 values of the 12-bit altitude field, the same altitude
+ * as the reference decoder, bit for bit and NaN included, whatever the other bits of the payload
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+final class AltitudeTableCheck {
+    private static final int ALT_START_INDEX = 36, ALT_SIZE = 12;
+    private static final long ALT_MASK = ((1L << ALT_SIZE) - 1) << ALT_START_INDEX;
+    /** Number of random payloads surrounding each value of the altitude field*/
+    private static final int SURROUNDINGS = 16;
+
+    /**
+     * Default AltitudeTableCheck constructor.
+     * Not instantiable
+     */
+    private AltitudeTableCheck() {}
+
+    /**
+     * Runs the check
+     *
+     * @param args (String[]): Ignored
+     * @throws AssertionError If the table differs from the reference decoder for a value
+     */
+    public static void main(String[] args) {
+        Random random = new Random(0);
+        int invalid = 0;
+
+        for (int code = 0; code < 1 << ALT_SIZE; code++) {
+            long expected = Double.doubleToRawLongBits(ReferenceAltitudeDecoder.altitude(code));
+            if (Double.isNaN(Double.longBitsToDouble(expected))) ++invalid;
+
+            for (int i = 0; i <= SURROUNDINGS; i++) {
+                long surrounding = i == 0 ? 0 : random.nextLong() & ~ALT_MASK;
+                long payload = surrounding | (long) code << ALT_START_INDEX;
+                long actual = Double.doubleToRawLongBits(AirbornePositionMessage.altitude(payload));
+                if (actual != expected)
+                    throw new AssertionError("altitude code " + code + " of payload "
+                            + Long.toHexString(payload) + " gives " + Double.longBitsToDouble(actual)
+                            + " instead of " + Double.longBitsToDouble(expected));
+            }
+        }
+
+        System.out.printf("%d altitude codes identical to the reference decoder, %d of them invalid%n",
+                1 << ALT_SIZE, invalid);
+    }
+}
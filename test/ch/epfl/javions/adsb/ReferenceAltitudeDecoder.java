@@ -0,0 +1,106 @@
+package ch.epfl.javions.adsb;
+
+import ch.epfl.javions.Bits;
+import ch.epfl.javions.Units;
+
+import static ch.epfl.javions.Units.Length.FOOT;
+
+/**
+ * Package-private and Final: Reference decoder of the altitude field of the position messages,
+ * computing the altitude bit by bit with Q=1 (25 ft steps) or Q=0 (100 ft Gillham Gray code),
+ * as it was done before the lookup table. It is kept as the oracle against which the table is
+ * checked
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+final class ReferenceAltitudeDecoder {
+    private final static long MASK = 0xF;
+    private static final int Q_INDEX = 4;
+    private static final int MSB_SIZE = 9, LSB_SIZE = 3, LSB_START_INDEX = 0;
+    private static final double INVALID_ALT = Double.NaN;
+    private static final int INVALID_LSB_ALT_ONE = 0, INVALID_LSB_ALT_TWO = 5, INVALID_LSB_ALT_THREE = 6;
+    private static final int CORRECTION_ALT_ZERO = -1_300, CORRECTION_ALT_1 = -1_000;
+    private static final int MSB_COEFF_ALT_ZERO = 500, LSB_COEFF_ALT_ZERO = 100;
+    private static final int ALT_COEFF_ONE = 25;
+    private static final int NUMBER_GRAY_GROUP = 4, GRAY_GROUP_SIZE = 3;
+    private static final int[] INDEX_TABLE = {0, 6, 1, 7};
+
+    /**
+     * Default ReferenceAltitudeDecoder constructor.
+     * Not instantiable
+     */
+    private ReferenceAltitudeDecoder() {}
+
+    /**
+     * Calculates the altitude encoded in the given value of the altitude field
+     *
+     * @param altitudeContent (long): Value of the 12-bit altitude field
+     * @return (double): Corresponding altitude, or NaN if it is invalid
+     */
+    static double altitude(long altitudeContent) {
+        if (Bits.testBit(altitudeContent, Q_INDEX)) {
+            int codedAltitude =
+                    (int) (((altitudeContent >>> Q_INDEX + 1) << Q_INDEX) | (MASK & altitudeContent));
+            int altitude = CORRECTION_ALT_1 + codedAltitude * ALT_COEFF_ONE;
+
+            return altitude <= 0 ? 0 : Units.convertFrom(altitude, FOOT);
+        } else {
+            long message = disentangling(altitudeContent);
+            long msbAltitude = Bits.extractUInt(message, LSB_SIZE, MSB_SIZE);
+            long lsbAltitude = Bits.extractUInt(message, LSB_START_INDEX, LSB_SIZE);
+
+            if (lsbAltitude == INVALID_LSB_ALT_ONE
+                    || lsbAltitude == INVALID_LSB_ALT_TWO
+                    || lsbAltitude == INVALID_LSB_ALT_THREE)  return INVALID_ALT;
+
+            if (lsbAltitude == 7) lsbAltitude = 5;
+
+            if ((msbAltitude % 2) != 0) lsbAltitude = 6 - lsbAltitude;
+
+            return Units.convertFrom(
+                    CORRECTION_ALT_ZERO
+                            + lsbAltitude * LSB_COEFF_ALT_ZERO
+                            + msbAltitude * MSB_COEFF_ALT_ZERO,
+                    FOOT);
+        }
+    }
+
+    /**
+     * Disentangles the bits of the encoding of the altitude value
+     *
+     * @param altitudeContent (long): Bits to disentangle
+     * @return (long): Disentangled bits
+     */
+    private static long disentangling(long altitudeContent) {
+        long decodedMessage = 0;
+
+        for (int j = 0; j < NUMBER_GRAY_GROUP; j++) {
+            for (int i = 0; i < GRAY_GROUP_SIZE; i++) {
+                decodedMessage = (decodedMessage << 1) |
+                        (Bits.testBit(altitudeContent, 2 * (2 - i) + INDEX_TABLE[j]) ? 1 : 0);
+            }
+        }
+
+        long msbContentGray = decodeGrayCode(
+                Bits.extractUInt(decodedMessage, LSB_SIZE, MSB_SIZE),MSB_SIZE);
+        long lsbContentGray = decodeGrayCode(
+                Bits.extractUInt(decodedMessage, LSB_START_INDEX, LSB_SIZE), LSB_SIZE);
+
+        return msbContentGray << LSB_SIZE | lsbContentGray;
+    }
+
+    /**
+     * Determines the binary value corresponding to the given Gray value
+     *
+     * @param codedContent  (long): Given Gray value
+     * @param messageLength (int): Length of the value
+     * @return (long): Binary representation
+     */
+    private static long decodeGrayCode(long codedContent, int messageLength) {
+        long decodedMessage = 0;
+
+        for (int i = 0; i < messageLength; i++) decodedMessage ^= codedContent >> i;
+
+        return decodedMessage;
+    }
+}
@@ -0,0 +1,100 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Package-private and Final: Checks that the receive loop of nextMessage(RawFrameSink) allocates
+ * nothing once warmed up. The loop runs over the AirSpy capture given as argument or, without
+ * argument, over synthetic RTL-SDR samples. The first half of the messages warms it up, and the
+ * bytes allocated by the thread while it gives the second half must be 0
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+final class AllocationCheck {
+    private static final long SYNTHETIC_POWER_SAMPLES = 1L << 28;
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Default AllocationCheck constructor.
+     * Not instantiable
+     */
+    private AllocationCheck() {}
+
+    /**
+     * Runs the check
+     *
+     * @param args (String[]): Optional path of an AirSpy capture
+     * @throws IOException If there is an Input/Output error
+     * @throws AssertionError If bytes have been allocated after the warm-up
+     */
+    public static void main(String[] args) throws IOException {
+        long messages;
+        try (InputStream stream = args.length > 0 ? new FileInputStream(args[0]) : null) {
+            messages = countMessages(demodulator(stream), new CountingSink());
+        }
+
+        long warmUp = messages / 2;
+        long allocatedBytes;
+        CountingSink sink = new CountingSink();
+        try (InputStream stream = args.length > 0 ? new FileInputStream(args[0]) : null) {
+            AdsbDemodulator demodulator = demodulator(stream);
+            while (sink.count < warmUp && demodulator.nextMessage(sink)) {}
+
+            long threadId = Thread.currentThread().threadId();
+            long before = THREADS.getThreadAllocatedBytes(threadId);
+            while (demodulator.nextMessage(sink)) {}
+            allocatedBytes = THREADS.getThreadAllocatedBytes(threadId) - before;
+        }
+
+        if (sink.count != messages)
+            throw new AssertionError("found " + sink.count + " messages instead of " + messages);
+        if (allocatedBytes != 0)
+            throw new AssertionError(allocatedBytes + " bytes allocated for " + (messages - warmUp) + " messages");
+
+        System.out.printf("%d messages, no byte allocated after a warm-up of %d messages%n", messages, warmUp);
+    }
+
+    /**
+     * Creates the demodulator reading the given capture or, if there is none, synthetic samples
+     *
+     * @param stream (InputStream): Stream of the AirSpy capture, or null
+     * @return (AdsbDemodulator): Demodulator
+     * @throws IOException If there is an Input/Output error
+     */
+    private static AdsbDemodulator demodulator(InputStream stream) throws IOException {
+        return stream != null
+                ? new AdsbDemodulator(new BufferedInputStream(stream))
+                : new AdsbDemodulator(new SyntheticSampleSource(SYNTHETIC_POWER_SAMPLES, 0),
+                SampleFormat.RTL_SDR, 0);
+    }
+
+    /**
+     * Gives all the messages of the given demodulator to the given sink
+     *
+     * @param demodulator (AdsbDemodulator): Demodulator
+     * @param sink        (CountingSink): Sink counting the messages
+     * @return (long): Number of messages
+     * @throws IOException If there is an Input/Output error
+     */
+    private static long countMessages(AdsbDemodulator demodulator, CountingSink sink) throws IOException {
+        while (demodulator.nextMessage(sink)) {}
+        return sink.count;
+    }
+
+    /**
+     * Represents a sink counting the messages it receives, without allocating anything
+     */
+    private static final class CountingSink implements RawFrameSink {
+        private long count = 0;
+
+        @Override
+        public void accept(long timeStampNs, long high, long low) {
+            ++count;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.adsb.RawFrame;
+
+import java.io.IOException;
+import java.util.HexFormat;
+
+/**
+ * Package-private and Final: Soak test of the demodulator, feeding it synthetic RTL-SDR samples
+ * past 2^31 power samples, i.e. past the position at which a 32-bit counter overflows. It checks
+ * that every frame is found, with a timestamp that stays non-negative and strictly increasing.
+ * The number of power samples and the position of the first one may be given as arguments, the
+ * latter simulating a receiver that has already been running for a long time
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+final class DemodulatorSoak {
+    private static final long DEFAULT_POWER_SAMPLES = (1L << Integer.SIZE - 1) + (1L << 24);
+    private static final SampleFormat FORMAT = SampleFormat.RTL_SDR;
+
+    /**
+     * Default DemodulatorSoak constructor.
+     * Not instantiable
+     */
+    private DemodulatorSoak() {}
+
+    /**
+     * Runs the soak test
+     *
+     * @param args (String[]): Optional number of power samples and position of the first one
+     * @throws IOException If there is an Input/Output error
+     * @throws AssertionError If a frame is missing or has a wrong timestamp
+     */
+    public static void main(String[] args) throws IOException {
+        long powerSamples = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_POWER_SAMPLES;
+        long firstPosition = args.length > 1 ? Long.parseLong(args[1]) : 0;
+
+        String[] frames = SyntheticSampleSource.FRAMES;
+        RawFrame[] expectedFrames = new RawFrame[frames.length];
+        for (int i = 0; i < frames.length; i++)
+            expectedFrames[i] = RawFrame.of(0, HexFormat.of().parseHex(frames[i]));
+
+        AdsbDemodulator demodulator = new AdsbDemodulator(
+                new SyntheticSampleSource(powerSamples, 0), FORMAT, firstPosition);
+        Checker checker = new Checker(expectedFrames, firstPosition);
+
+        long start = System.nanoTime();
+        while (demodulator.nextMessage(checker)) {}
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        long expectedCount = SyntheticSampleSource.frameCount(powerSamples);
+        if (checker.count != expectedCount)
+            throw new AssertionError("found " + checker.count + " frames instead of " + expectedCount);
+
+        System.out.printf("%d frames over %d power samples (%.1f min of signal) in %d ms, last timestamp %d ns%n",
+                checker.count, powerSamples, powerSamples * FORMAT.sampleDurationNs() / 60e9,
+                elapsedMs, checker.lastTimeStampNs);
+    }
+
+    /**
+     * Represents the sink checking the frames found by the demodulator against the ones sent
+     */
+    private static final class Checker implements RawFrameSink {
+        private final RawFrame[] expectedFrames;
+        private final long firstPosition;
+        private long count = 0, lastTimeStampNs = -1;
+
+        private Checker(RawFrame[] expectedFrames, long firstPosition) {
+            this.expectedFrames = expectedFrames;
+            this.firstPosition = firstPosition;
+        }
+
+        @Override
+        public void accept(long timeStampNs, long high, long low) {
+            long expectedTimeStampNs = (firstPosition + SyntheticSampleSource.frameStart(count))
+                    * FORMAT.sampleDurationNs();
+            RawFrame expected = expectedFrames[(int) (count % expectedFrames.length)];
+
+            if (timeStampNs < 0 || timeStampNs <= lastTimeStampNs)
+                throw new AssertionError("timestamp " + timeStampNs + " after " + lastTimeStampNs);
+            if (timeStampNs != expectedTimeStampNs)
+                throw new AssertionError("frame " + count + " at " + timeStampNs
+                        + " ns instead of " + expectedTimeStampNs + " ns");
+            if (high != expected.high() || low != expected.low())
+                throw new AssertionError("frame " + count + " has wrong bytes");
+
+            lastTimeStampNs = timeStampNs;
+            ++count;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.adsb.RawMessage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Package-private and Final: Checks that the parallel demodulator gives exactly the messages of
+ * the sequential one, over a synthetic AirSpy capture of which the frames follow each other
+ * closely, some of them back to back and some overlapping a weaker one. The capture is split
+ * in chunks down to the size of a window, so that most frames straddle two of them
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+final class ParallelCheck {
+    private static final SampleFormat FORMAT = SampleFormat.AIRSPY;
+    private static final int WINDOW_SIZE = FORMAT.windowSize();
+    private static final int POWER_SAMPLE_BYTES = FORMAT.powerSampleBytes();
+    private static final int FRAME_COUNT = 2_000;
+    /** Largest number of power samples separating the end of a frame from the next one*/
+    private static final int MAX_GAP = 3 * WINDOW_SIZE / 2;
+    /** Proportion of the frames overlapping the previous one, with a weaker signal*/
+    private static final double OVERLAP_RATIO = 0.1;
+    private static final long[] CHUNK_LENGTHS = {1 << 20, 1 << 16, 3L * WINDOW_SIZE * POWER_SAMPLE_BYTES,
+            (long) WINDOW_SIZE * POWER_SAMPLE_BYTES};
+    private static final int THREADS = 4;
+
+    /**
+     * Default ParallelCheck constructor.
+     * Not instantiable
+     */
+    private ParallelCheck() {}
+
+    /**
+     * Runs the check
+     *
+     * @param args (String[]): Ignored
+     * @throws IOException If there is an Input/Output error
+     * @throws AssertionError If the parallel demodulator does not give the messages of the
+     * sequential one
+     */
+    public static void main(String[] args) throws IOException {
+        Path capture = Files.createTempFile("capture", ".bin");
+        ForkJoinPool pool = new ForkJoinPool(THREADS);
+
+        try {
+            Files.write(capture, SyntheticCapture.generate(new Random(0)));
+
+            try (FileChannel channel = FileChannel.open(capture)) {
+                List<RawMessage> expected = new ArrayList<>();
+                AdsbDemodulator demodulator = new AdsbDemodulator(channel);
+                RawMessage message;
+                while ((message = demodulator.nextMessage()) != null) expected.add(message);
+
+                check(expected, ParallelDemodulator.demodulate(channel, pool), "default chunks");
+                for (long chunkLength : CHUNK_LENGTHS) {
+                    List<RawMessage> actual = ParallelDemodulator.demodulate(channel, pool, chunkLength);
+                    check(expected, actual, "chunks of " + chunkLength + " bytes");
+                    System.out.printf("%d messages, %d of them straddling chunks of %d bytes%n",
+                            actual.size(), straddling(actual, chunkLength), chunkLength);
+                }
+            }
+        } finally {
+            pool.shutdown();
+            Files.delete(capture);
+        }
+    }
+
+    /**
+     * Checks that the given messages are the expected ones
+     *
+     * @param expected (List<RawMessage>): Messages of the sequential demodulator
+     * @param actual   (List<RawMessage>): Messages of the parallel demodulator
+     * @param chunks   (String): Description of the chunks
+     * @throws AssertionError If the messages differ
+     */
+    private static void check(List<RawMessage> expected, List<RawMessage> actual, String chunks) {
+        for (int i = 0; i < Math.min(expected.size(), actual.size()); i++) {
+            if (!expected.get(i).equals(actual.get(i)))
+                throw new AssertionError("message " + i + " with " + chunks + " is "
+                        + actual.get(i) + " instead of " + expected.get(i));
+        }
+        if (expected.size() != actual.size())
+            throw new AssertionError(actual.size() + " messages with " + chunks
+                    + " instead of " + expected.size());
+    }
+
+    /**
+     * Determines the number of the given messages of which the window straddles two chunks
+     *
+     * @param messages    (List<RawMessage>): Messages
+     * @param chunkLength (long): Length of the chunks
+     * @return (long): Number of messages straddling two chunks
+     */
+    private static long straddling(List<RawMessage> messages, long chunkLength) {
+        long chunkSamples = chunkLength / POWER_SAMPLE_BYTES;
+        return messages.stream()
+                .mapToLong(m -> m.timeStampNs() / FORMAT.sampleDurationNs())
+                .filter(p -> p / chunkSamples != (p + WINDOW_SIZE - 1) / chunkSamples)
+                .count();
+    }
+
+    /**
+     * Represents a synthetic AirSpy capture, whose frames are modulated on a carrier at a quarter
+     * of the sampling frequency, as the AirSpy gives them
+     */
+    private static final class SyntheticCapture {
+        private static final String[] FRAMES = SyntheticSampleSource.FRAMES;
+        private static final int PULSE_WIDTH = FORMAT.pulseWidth();
+        private static final int[] PREAMBLE_PULSES = {0, 2, 7, 9};
+        private static final int PREAMBLE_PULSES_COUNT = 16;
+        private static final int BIAS = 2048, AMPLITUDE = 600, WEAK_AMPLITUDE = 150, NOISE = 10;
+
+        /**
+         * Generates the samples of the capture
+         *
+         * @param random (Random): Generator of the positions of the frames and of the noise
+         * @return (byte[]): Bytes of the capture
+         */
+        private static byte[] generate(Random random) {
+            int[] amplitudes = new int[FRAME_COUNT * (WINDOW_SIZE + MAX_GAP) + WINDOW_SIZE];
+            int position = WINDOW_SIZE;
+            for (int f = 0; f < FRAME_COUNT; f++) {
+                boolean overlapping = 0 < f && random.nextDouble() < OVERLAP_RATIO;
+                int start = overlapping
+                        ? position - WINDOW_SIZE + random.nextInt(WINDOW_SIZE)
+                        : position + random.nextInt(MAX_GAP);
+                placeFrame(amplitudes, start, FRAMES[f % FRAMES.length],
+                        overlapping ? WEAK_AMPLITUDE : AMPLITUDE);
+                position = Math.max(position, start + WINDOW_SIZE);
+            }
+
+            ByteBuffer bytes = ByteBuffer.allocate(position * POWER_SAMPLE_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < position; i++) {
+                int signal = (i % 2 == 0) ? amplitudes[i] : -amplitudes[i];
+                bytes.putShort((short) (BIAS + signal + random.nextInt(2 * NOISE + 1) - NOISE));
+                bytes.putShort((short) (BIAS + random.nextInt(2 * NOISE + 1) - NOISE));
+            }
+            return bytes.array();
+        }
+
+        /**
+         * Adds the pulses of the given frame, of which the preamble begins at the given position
+         *
+         * @param amplitudes (int[]): Amplitudes of the signal
+         * @param start      (int): Position of the preamble
+         * @param frame      (String): Hexadecimal representation of the frame
+         * @param amplitude  (int): Amplitude of the pulses
+         */
+        private static void placeFrame(int[] amplitudes, int start, String frame, int amplitude) {
+            byte[] bytes = HexFormat.of().parseHex(frame);
+            for (int pulse : PREAMBLE_PULSES) addPulse(amplitudes, start + pulse * PULSE_WIDTH, amplitude);
+            for (int bit = 0; bit < bytes.length * Byte.SIZE; bit++) {
+                boolean one = ((bytes[bit / Byte.SIZE] >> (Byte.SIZE - 1 - bit % Byte.SIZE)) & 1) == 1;
+                int pulse = PREAMBLE_PULSES_COUNT + 2 * bit + (one ? 0 : 1);
+                addPulse(amplitudes, start + pulse * PULSE_WIDTH, amplitude);
+            }
+        }
+
+        /**
+         * Adds a pulse of the given amplitude beginning at the given position
+         *
+         * @param amplitudes (int[]): Amplitudes of the signal
+         * @param start      (int): Position of the pulse
+         * @param amplitude  (int): Amplitude of the pulse
+         */
+        private static void addPulse(int[] amplitudes, int start, int amplitude) {
+            for (int i = start; i < start + PULSE_WIDTH; i++) amplitudes[i] += amplitude;
+        }
+    }
+}
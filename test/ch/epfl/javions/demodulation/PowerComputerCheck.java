@@ -0,0 +1,152 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+/**
+ * Package-private and Final: Checks that the scalar loop and, when the application runs with the
+ * jdk.incubator.vector module added, the vector kernel give the power samples of the reference
+ * ring, bit for bit, over random, saturated and out of range AirSpy samples. The samples are read
+ * both from a stream and from a mapped file, in batches of which the last one is partial, so
+ * that the three previous I/Q pairs are carried from one batch to the next
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+final class PowerComputerCheck {
+    private static final int BATCH_SIZE = 1 << 10;
+    private static final int[] POWER_SAMPLES = {5 * BATCH_SIZE + 13, 2 * BATCH_SIZE + 2, 5};
+    private static final int LOWEST_SAMPLE = 0, HIGHEST_SAMPLE = (1 << 12) - 1;
+    private static final int SAMPLES_PER_POWER_SAMPLE = 2;
+
+    /**
+     * Default PowerComputerCheck constructor.
+     * Not instantiable
+     */
+    private PowerComputerCheck() {}
+
+    /**
+     * Runs the check
+     *
+     * @param args (String[]): Ignored
+     * @throws IOException If there is an Input/Output error
+     * @throws AssertionError If a power sample differs from the reference one
+     */
+    public static void main(String[] args) throws IOException {
+        Random random = new Random(0);
+        IntSupplier[] inputs = {
+                () -> LOWEST_SAMPLE + random.nextInt(HIGHEST_SAMPLE - LOWEST_SAMPLE + 1),
+                () -> random.nextBoolean() ? HIGHEST_SAMPLE : LOWEST_SAMPLE,
+                random::nextInt
+        };
+        String[] inputNames = {"random", "saturated", "out of range"};
+        boolean vectorized = new PowerComputer(
+                new StreamSampleSource(InputStream.nullInputStream()), BATCH_SIZE, SampleFormat.AIRSPY)
+                .isVectorized();
+
+        Path capture = Files.createTempFile("capture", ".bin");
+        long checked = 0;
+        try {
+            for (int input = 0; input < inputs.length; input++) {
+                for (int powerSamples : POWER_SAMPLES) {
+                    byte[] bytes = samples(inputs[input], powerSamples);
+                    Files.write(capture, bytes);
+                    int[] expected = powers(new ReferencePowerComputer(
+                            new ByteArrayInputStream(bytes), BATCH_SIZE)::readBatch);
+
+                    for (boolean vector : new boolean[]{false, true}) {
+                        String name = inputNames[input] + " samples, " + (vector ? "vector" : "scalar");
+                        check(expected, powers(new PowerComputer(new StreamSampleSource(
+                                new ByteArrayInputStream(bytes)), BATCH_SIZE, SampleFormat.AIRSPY,
+                                vector)::readBatch), name + " from a stream");
+                        try (FileChannel channel = FileChannel.open(capture)) {
+                            check(expected, powers(new PowerComputer(new MappedSampleSource(channel),
+                                    BATCH_SIZE, SampleFormat.AIRSPY, vector)::readBatch),
+                                    name + " from a mapped file");
+                        }
+                    }
+                    checked += expected.length;
+                }
+            }
+        } finally {
+            Files.delete(capture);
+        }
+
+        System.out.printf("%d power samples identical to the reference ring, vector kernel %s%n",
+                checked, vectorized ? "checked" : "not available");
+    }
+
+    /**
+     * Generates the bytes of the given number of power samples, i.e. of as many I/Q pairs of
+     * the given 16-bit samples
+     *
+     * @param input        (IntSupplier): Generator of the samples
+     * @param powerSamples (int): Number of power samples
+     * @return (byte[]): Bytes of the samples, as the AirSpy gives them
+     */
+    private static byte[] samples(IntSupplier input, int powerSamples) {
+        int samples = powerSamples * SAMPLES_PER_POWER_SAMPLE;
+        ByteBuffer bytes = ByteBuffer.allocate(samples * Short.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < samples; i++) bytes.putShort((short) input.getAsInt());
+        return bytes.array();
+    }
+
+    /**
+     * Reads all the power samples of the given batch reader
+     *
+     * @param reader (BatchReader): Reader of the batches of power samples
+     * @return (int[]): Power samples read
+     * @throws IOException If there is an Input/Output error
+     */
+    private static int[] powers(BatchReader reader) throws IOException {
+        int[] powers = new int[0];
+        int[] batch = new int[BATCH_SIZE];
+        int count;
+        while ((count = reader.readBatch(batch)) > 0) {
+            powers = Arrays.copyOf(powers, powers.length + count);
+            System.arraycopy(batch, 0, powers, powers.length - count, count);
+        }
+        return powers;
+    }
+
+    /**
+     * Checks that the given power samples are the expected ones
+     *
+     * @param expected (int[]): Power samples of the reference ring
+     * @param actual   (int[]): Power samples checked
+     * @param name     (String): Description of the samples and of the computation
+     * @throws AssertionError If the power samples differ
+     */
+    private static void check(int[] expected, int[] actual, String name) {
+        int mismatch = Arrays.mismatch(expected, actual);
+        if (mismatch == -1) return;
+        if (mismatch == Math.min(expected.length, actual.length))
+            throw new AssertionError(actual.length + " power samples with " + name
+                    + " instead of " + expected.length);
+        throw new AssertionError("power sample " + mismatch + " with " + name + " is "
+                + actual[mismatch] + " instead of " + expected[mismatch]);
+    }
+
+    /**
+     * Represents a reader of batches of power samples
+     */
+    @FunctionalInterface
+    private interface BatchReader {
+        /**
+         * Reads the next batch of power samples
+         *
+         * @param batch (int[]): Array in which the power samples are placed
+         * @return (int): Number of samples placed in the array
+         * @throws IOException If there is an Input/Output error
+         */
+        int readBatch(int[] batch) throws IOException;
+    }
+}
@@ -0,0 +1,94 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * Package-private and Final: Benchmark of PowerWindow.advanceBy, run over the AirSpy capture given
+ * as argument, ideally one with dense traffic, or, without argument, over synthetic RTL-SDR
+ * samples carrying a frame every millisecond. It measures the messages per second of the
+ * demodulator, which jumps over each message it finds, and compares the jumps of a window's
+ * length made by advanceBy with the same jumps made one advance at a time, as advanceBy did
+ * before. Both walks must reach the same windows. The best of several rounds is reported
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+final class PowerWindowBenchmark {
+    private static final long SYNTHETIC_POWER_SAMPLES = 1L << 26;
+    private static final int ROUNDS = 5;
+    /** Factor of the checksum of the first samples of the windows reached by both walks*/
+    private static final long CHECKSUM_FACTOR = 31;
+
+    /**
+     * Default PowerWindowBenchmark constructor.
+     * Not instantiable
+     */
+    private PowerWindowBenchmark() {}
+
+    /**
+     * Runs the benchmark
+     *
+     * @param args (String[]): Optional path of an AirSpy capture
+     * @throws IOException If there is an Input/Output error
+     * @throws AssertionError If both walks do not reach the same windows
+     */
+    public static void main(String[] args) throws IOException {
+        try (FileChannel channel = args.length > 0 ? FileChannel.open(Path.of(args[0])) : null) {
+            SampleFormat format = channel != null ? SampleFormat.AIRSPY : SampleFormat.RTL_SDR;
+
+            long messages = 0, bestDemodulationNs = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                AdsbDemodulator demodulator = new AdsbDemodulator(source(channel), format, 0);
+                long start = System.nanoTime();
+                for (messages = 0; demodulator.nextMessage() != null; ++messages) {}
+                bestDemodulationNs = Math.min(bestDemodulationNs, System.nanoTime() - start);
+            }
+
+            long jumps = 0, bestJumpsNs = Long.MAX_VALUE, bestAdvancesNs = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                PowerWindow jumping = new PowerWindow(source(channel), format.windowSize(), 0, format);
+                long jumpingChecksum = 0;
+                long start = System.nanoTime();
+                for (jumps = 0; jumping.isFull(); ++jumps) {
+                    jumpingChecksum = CHECKSUM_FACTOR * jumpingChecksum + jumping.get(0);
+                    jumping.advanceBy(format.windowSize());
+                }
+                bestJumpsNs = Math.min(bestJumpsNs, System.nanoTime() - start);
+
+                PowerWindow advancing = new PowerWindow(source(channel), format.windowSize(), 0, format);
+                long advancingChecksum = 0;
+                start = System.nanoTime();
+                while (advancing.isFull()) {
+                    advancingChecksum = CHECKSUM_FACTOR * advancingChecksum + advancing.get(0);
+                    for (int i = 0; i < format.windowSize(); i++) advancing.advance();
+                }
+                bestAdvancesNs = Math.min(bestAdvancesNs, System.nanoTime() - start);
+
+                if (jumping.position() != advancing.position() || jumpingChecksum != advancingChecksum)
+                    throw new AssertionError("advanceBy ends at " + jumping.position()
+                            + " and the advance loop at " + advancing.position()
+                            + ", with checksums " + jumpingChecksum + " and " + advancingChecksum);
+            }
+
+            System.out.printf("demodulation: %d messages, %.0f messages/s%n",
+                    messages, messages / (bestDemodulationNs / 1e9));
+            System.out.printf("%d jumps of %d samples: advanceBy %.0f ns/jump, advance loop %.0f ns/jump%n",
+                    jumps, format.windowSize(), (double) bestJumpsNs / jumps, (double) bestAdvancesNs / jumps);
+        }
+    }
+
+    /**
+     * Creates the source of the samples of the given capture or, if there is none, of synthetic
+     * samples
+     *
+     * @param channel (FileChannel): Channel of the AirSpy capture, or null
+     * @return (SampleSource): Source of the samples, from the first one
+     * @throws IOException If there is an Input/Output error
+     */
+    private static SampleSource source(FileChannel channel) throws IOException {
+        return channel != null
+                ? new MappedSampleSource(channel)
+                : new SyntheticSampleSource(SYNTHETIC_POWER_SAMPLES, 0);
+    }
+}
@@ -0,0 +1,66 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Package-private and Final: Reference power calculator, decoding the AirSpy bytes into a batch
+ * of samples and then computing each power sample from a ring of the last eight samples, as it
+ * was done before the fused kernel. It is kept as the oracle against which the scalar loop and
+ * the vector kernel are checked
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+final class ReferencePowerComputer {
+    private static final int ODD_VALUE_INDEX_ZERO = 1, ODD_VALUE_INDEX_ONE = 3,
+            ODD_VALUE_INDEX_TWO = 5, ODD_VALUE_INDEX_THREE = 7;
+    private static final int EVEN_VALUE_INDEX_ZERO = 0, EVEN_VALUE_INDEX_ONE = 2,
+            EVEN_VALUE_INDEX_TWO = 4, EVEN_VALUE_INDEX_THREE = 6;
+    private static final int BIAS = 1 << 11;
+
+    private final InputStream stream;
+    private final byte[] bytes;
+    private final short[] samples;
+    private final int[] lastSamples = new int[Byte.SIZE];
+
+    /**
+     * Default ReferencePowerComputer constructor.
+     * Defines a power calculator reading the samples of the given stream
+     *
+     * @param stream    (InputStream): Given stream
+     * @param batchSize (int): Size of the batches
+     */
+    ReferencePowerComputer(InputStream stream, int batchSize) {
+        this.stream = stream;
+        this.samples = new short[batchSize * Short.BYTES];
+        this.bytes = new byte[samples.length * Short.BYTES];
+    }
+
+    /**
+     * Calculates the next batch of power samples and places it in the given array
+     *
+     * @param batch (int[]): Given array
+     * @return (int): Number of samples placed in the array
+     * @throws IOException If there is an Input/Output error
+     */
+    int readBatch(int[] batch) throws IOException {
+        int bytesRead = stream.readNBytes(bytes, 0, bytes.length);
+        for (int i = 0; i < bytesRead; i += Short.BYTES)
+            samples[i / Short.BYTES] =
+                    (short) ((Byte.toUnsignedInt(bytes[i]) | (bytes[i + 1] << Byte.SIZE)) - BIAS);
+
+        int sampleCount = bytesRead / Short.BYTES;
+        for (int i = 0; i < sampleCount; i += Short.BYTES) {
+            lastSamples[i % Byte.SIZE] = samples[i];
+            lastSamples[(i + 1) % Byte.SIZE] = samples[i + 1];
+
+            int oddValue = lastSamples[ODD_VALUE_INDEX_ZERO] - lastSamples[ODD_VALUE_INDEX_ONE]
+                    + lastSamples[ODD_VALUE_INDEX_TWO] - lastSamples[ODD_VALUE_INDEX_THREE];
+            int evenValue = lastSamples[EVEN_VALUE_INDEX_ZERO] - lastSamples[EVEN_VALUE_INDEX_ONE]
+                    + lastSamples[EVEN_VALUE_INDEX_TWO] - lastSamples[EVEN_VALUE_INDEX_THREE];
+
+            batch[i / Short.BYTES] = oddValue * oddValue + evenValue * evenValue;
+        }
+        return sampleCount / Short.BYTES;
+    }
+}
@@ -0,0 +1,89 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+/**
+ * Package-private and Final: Checks the squelch with the RTL-SDR window, which is smaller than
+ * a block. Over pure noise, every block must be skipped, the last block of each batch included,
+ * and over the synthetic frames the squelch must skip samples without losing any frame
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+final class SquelchCheck {
+    private static final SampleFormat FORMAT = SampleFormat.RTL_SDR;
+    private static final double SQUELCH_LEVEL = 10;
+    private static final int BATCH_SIZE = 1 << 16, BATCHES = 4;
+    private static final int BLOCKS = BATCH_SIZE / PowerWindow.BLOCK_SIZE;
+    private static final long FRAMES_POWER_SAMPLES = 1L << 22;
+
+    /**
+     * Default SquelchCheck constructor.
+     * Not instantiable
+     */
+    private SquelchCheck() {}
+
+    /**
+     * Runs the check
+     *
+     * @param args (String[]): Ignored
+     * @throws IOException If there is an Input/Output error
+     * @throws AssertionError If a quiet block is not skipped or if a frame is lost
+     */
+    public static void main(String[] args) throws IOException {
+        PowerWindow window = new PowerWindow(
+                new NoiseSampleSource((long) BATCHES * BATCH_SIZE), FORMAT.windowSize(), 0, FORMAT);
+
+        int lastBlocksSkipped = 0;
+        // The blocks of the last batch are followed by the end of the samples, never quiet
+        for (int block = 0; block < (BATCHES - 1) * BLOCKS; block++) {
+            if (window.quietSamples(SQUELCH_LEVEL) != PowerWindow.BLOCK_SIZE)
+                throw new AssertionError("quiet block " + block + " of the noise not skipped");
+            if (block % BLOCKS == BLOCKS - 1) ++lastBlocksSkipped;
+            window.advanceBy(PowerWindow.BLOCK_SIZE);
+        }
+
+        long[] counts = new long[2];
+        for (int squelched = 0; squelched < counts.length; squelched++) {
+            AdsbDemodulator demodulator = new AdsbDemodulator(
+                    new SyntheticSampleSource(FRAMES_POWER_SAMPLES, 0), FORMAT, 0);
+            demodulator.setSquelchLevel(squelched * SQUELCH_LEVEL);
+            while (demodulator.nextMessage() != null) ++counts[squelched];
+            if (squelched == 1 && demodulator.skippedSamples() == 0)
+                throw new AssertionError("no sample skipped between the frames");
+        }
+
+        long expected = SyntheticSampleSource.frameCount(FRAMES_POWER_SAMPLES);
+        if (counts[0] != expected || counts[1] != expected)
+            throw new AssertionError(counts[1] + " frames with the squelch and " + counts[0]
+                    + " without it instead of " + expected);
+
+        System.out.printf("all noise blocks skipped, %d of them ending a batch, %d frames kept%n",
+                lastBlocksSkipped, expected);
+    }
+
+    /**
+     * Represents a source of RTL-SDR samples made only of bounded uniform noise, whose peaks stay
+     * a few times above its mean power
+     */
+    private static final class NoiseSampleSource implements SampleSource {
+        private static final int LOWEST_SAMPLE = 125, NOISE_VALUES = 6;
+        private final Random random = new Random(0);
+        private long remainingBytes;
+
+        private NoiseSampleSource(long powerSamples) {
+            this.remainingBytes = powerSamples * FORMAT.powerSampleBytes();
+        }
+
+        @Override
+        public ByteBuffer read(int length) {
+            byte[] bytes = new byte[(int) Math.min(length, remainingBytes)];
+            for (int i = 0; i < bytes.length; i++)
+                bytes[i] = (byte) (LOWEST_SAMPLE + random.nextInt(NOISE_VALUES));
+            remainingBytes -= bytes.length;
+            return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+}
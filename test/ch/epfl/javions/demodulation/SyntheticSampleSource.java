@@ -0,0 +1,130 @@
+package ch.epfl.javions.demodulation;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static ch.epfl.javions.Preconditions.checkArgument;
+
+/**
+ * Package-private and Final: Represents a source of synthetic RTL-SDR samples made of gaussian
+ * noise and of a valid ADS-B frame every FRAME_SPACING power samples. A cycle of frames is
+ * generated once and then replayed, so that hours of samples are produced quickly
+ *
+ * @author Pablo Robin Guerrero (356671)
+ */
+final class SyntheticSampleSource implements SampleSource {
+    /** Number of power samples separating the beginnings of two consecutive frames, i.e. 1 ms*/
+    static final int FRAME_SPACING = 2_000;
+    /** Frames sent in turn, all of them having a valid CRC24*/
+    static final String[] FRAMES = {"8D4840D6202CC371C32CE0576098", "8D40621D58C382D690C8AC2863A7",
+            "8D485020994409940838175B284F", "8DA05F219B06B6AF189400CBC33F"};
+    private static final int CYCLE_FRAMES = 64, CYCLE_SAMPLES = CYCLE_FRAMES * FRAME_SPACING;
+    private static final int FIRST_FRAME_OFFSET = 500;
+    /** Number of pulses of the preamble and of a frame, which has 2 pulses for each of its 112 bits*/
+    private static final int PREAMBLE_PULSES_COUNT = 16, FRAME_PULSES = 240;
+    private static final int[] PREAMBLE_PULSES = {0, 2, 7, 9};
+    private static final double CENTER = 127.5, AMPLITUDE = 90, NOISE_DEVIATION = 3;
+    private static final int SAMPLE_BYTES = SampleFormat.RTL_SDR.powerSampleBytes();
+    private final byte[] cycle = new byte[CYCLE_SAMPLES * SAMPLE_BYTES];
+    private byte[] bytes = new byte[0];
+    private ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    private long remainingBytes;
+    private int cyclePosition = 0;
+
+    /**
+     * Default SyntheticSampleSource constructor.
+     * Defines a source producing the given number of power samples
+     *
+     * @param powerSamples (long): Number of power samples produced by the source
+     * @param seed         (long): Seed of the noise
+     * @throws IllegalArgumentException If the number of power samples is strictly negative
+     */
+    SyntheticSampleSource(long powerSamples, long seed) {
+        checkArgument(0 <= powerSamples);
+
+        this.remainingBytes = powerSamples * SAMPLE_BYTES;
+        Random random = new Random(seed);
+        boolean[] pulses = new boolean[CYCLE_SAMPLES];
+        for (int f = 0; f < CYCLE_FRAMES; f++)
+            placeFrame(pulses, frameStart(f), FRAMES[f % FRAMES.length]);
+
+        double phase = 0;
+        for (int i = 0; i < CYCLE_SAMPLES; i++) {
+            if ((i - FIRST_FRAME_OFFSET) % FRAME_SPACING == 0) phase = random.nextDouble() * 2 * Math.PI;
+            double amplitude = pulses[i] ? AMPLITUDE : 0;
+            cycle[SAMPLE_BYTES * i] = sample(amplitude * Math.cos(phase), random);
+            cycle[SAMPLE_BYTES * i + 1] = sample(amplitude * Math.sin(phase), random);
+        }
+    }
+
+    /**
+     * Determines the position of the beginning of the preamble of the frame of the given index,
+     * relative to the first power sample of the source
+     *
+     * @param index (long): Index of the frame
+     * @return (long): Position of the frame
+     */
+    static long frameStart(long index) {
+        return FIRST_FRAME_OFFSET + index * FRAME_SPACING;
+    }
+
+    /**
+     * Determines the number of frames entirely contained in the given number of power samples
+     *
+     * @param powerSamples (long): Number of power samples
+     * @return (long): Number of complete frames
+     */
+    static long frameCount(long powerSamples) {
+        long lastSample = powerSamples - FIRST_FRAME_OFFSET - FRAME_PULSES;
+        return lastSample < 0 ? 0 : lastSample / FRAME_SPACING + 1;
+    }
+
+    @Override
+    public ByteBuffer read(int length) {
+        if (bytes.length < length) {
+            bytes = new byte[length];
+            buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        int bytesRead = (int) Math.min(length, remainingBytes);
+        for (int copied = 0; copied < bytesRead; ) {
+            int chunk = Math.min(bytesRead - copied, cycle.length - cyclePosition);
+            System.arraycopy(cycle, cyclePosition, bytes, copied, chunk);
+            copied += chunk;
+            cyclePosition = (cyclePosition + chunk) % cycle.length;
+        }
+        remainingBytes -= bytesRead;
+
+        return buffer.clear().limit(bytesRead);
+    }
+
+    /**
+     * Marks the pulses of the given frame, of which the preamble begins at the given position
+     *
+     * @param pulses (boolean[]): Pulses of the cycle
+     * @param start  (long): Position of the preamble
+     * @param frame  (String): Hexadecimal representation of the frame
+     */
+    private static void placeFrame(boolean[] pulses, long start, String frame) {
+        byte[] bytes = HexFormat.of().parseHex(frame);
+        for (int pulse : PREAMBLE_PULSES) pulses[(int) start + pulse] = true;
+        for (int bit = 0; bit < bytes.length * Byte.SIZE; bit++) {
+            boolean one = ((bytes[bit / Byte.SIZE] >> (Byte.SIZE - 1 - bit % Byte.SIZE)) & 1) == 1;
+            pulses[(int) start + PREAMBLE_PULSES_COUNT + 2 * bit + (one ? 0 : 1)] = true;
+        }
+    }
+
+    /**
+     * Produces an unsigned 8-bit sample of the given component of the signal with added noise
+     *
+     * @param component (double): Component of the signal
+     * @param random    (Random): Generator of the noise
+     * @return (byte): Unsigned sample
+     */
+    private static byte sample(double component, Random random) {
+        long value = Math.round(CENTER + component + random.nextGaussian() * NOISE_DEVIATION);
+        return (byte) Math.max(0, Math.min(255, value));
+    }
+}